@@ -0,0 +1,61 @@
+package main.com.company.generators;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Consumes generated values without writing them anywhere, so only the generation cost is measured.
+ */
+class BlackholeRowSink implements RowSink {
+    private final Blackhole blackhole;
+
+    BlackholeRowSink(Blackhole blackhole)
+    {
+        this.blackhole = blackhole;
+    }
+
+    @Override
+    public void setInt(int column, int value)
+    {
+        blackhole.consume(value);
+    }
+
+    @Override
+    public void setDouble(int column, double value)
+    {
+        blackhole.consume(value);
+    }
+
+    @Override
+    public void setBoolean(int column, boolean value)
+    {
+        blackhole.consume(value);
+    }
+
+    @Override
+    public void setString(int column, String value)
+    {
+        blackhole.consume(value);
+    }
+
+    @Override
+    public void setAscii(int column, byte[] value, int length)
+    {
+        blackhole.consume(value);
+        blackhole.consume(length);
+    }
+
+    @Override
+    public void endRow()
+    {
+    }
+
+    @Override
+    public void flush()
+    {
+    }
+
+    @Override
+    public void close()
+    {
+    }
+}
@@ -0,0 +1,116 @@
+package main.com.company.generators;
+
+import main.com.company.metrics.TableMetrics;
+import main.com.company.models.Reference;
+import main.com.company.models.SqlDatabase;
+import main.com.company.models.SqlTable;
+import main.com.company.parsers.SyntheticSchema;
+import main.com.company.parsers.XmlParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end fill of generated tables through the JDBC path into an in-memory H2 database in MySQL mode, which
+ * stands in for the server. Scores are rows per second, the gc profiler's alloc.rate.norm is bytes allocated per row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FillBenchmark {
+    private static final int ROWS = 20000;
+
+    private static final int TABLES_COUNT = 5;
+
+    @Param({"1", "100", "1000"})
+    public int batchSize;
+
+    @Param({"0", "4"})
+    public int pipelineDepth;
+
+    private ExecutorService generators;
+
+    private Connection connection;
+
+    private SqlDatabase database;
+
+    private Map<String, Integer> rowCounts;
+
+    @Setup
+    public void setUp() throws Exception
+    {
+        database = XmlParser.fromFile(SyntheticSchema.write(TABLES_COUNT, ROWS).getPath());
+        generators = Executors.newSingleThreadExecutor();
+        connection = DriverManager.getConnection("jdbc:h2:mem:fill;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        connection.setAutoCommit(false);
+        rowCounts = new HashMap<>();
+        Statement s = connection.createStatement();
+        for (SqlTable t : database.getGenerationOrder()) {
+            s.executeUpdate(DataGenerator.getCreateTableQuery(t));
+            rowCounts.put(t.getTableName(), ROWS);
+        }
+        s.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void truncate() throws SQLException
+    {
+        Statement s = connection.createStatement();
+        for (SqlTable t : database.getDatabaseTables()) {
+            s.executeUpdate("TRUNCATE TABLE " + t.getTableName());
+        }
+        s.close();
+        connection.commit();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException
+    {
+        connection.close();
+        generators.shutdownNow();
+    }
+
+    private void fill(SqlTable table)
+    {
+        Reference[] refs = database.getInlineReferences(table);
+        TablePlan plan = DataGenerator.compileTable(table, refs, rowCounts, 42);
+        RowRandom random = Randoms.forRows(42, table.getTableName());
+        TableMetrics metrics = new TableMetrics(table.getTableName(), ROWS);
+        boolean filled = pipelineDepth == 0
+                ? DataGenerator.fillTable(connection, table, refs, plan, 0, ROWS, batchSize, random, metrics)
+                : DataGenerator.pipelineTable(connection, table, refs, plan, 0, ROWS, batchSize, pipelineDepth, random,
+                generators, metrics);
+        if (!filled) {
+            throw new IllegalStateException("Table \"" + table.getTableName() + "\" was not filled");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void fillTable() throws SQLException
+    {
+        fill(database.getGenerationOrder()[0]);
+        connection.commit();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS * TABLES_COUNT)
+    public void fillDatabase() throws SQLException
+    {
+        for (SqlTable t : database.getGenerationOrder()) {
+            fill(t);
+        }
+        connection.commit();
+    }
+}
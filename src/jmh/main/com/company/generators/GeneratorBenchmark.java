@@ -0,0 +1,97 @@
+package main.com.company.generators;
+
+import main.com.company.models.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generation cost of single column types and of a whole row, without any I/O. Scores are rows per second, the gc
+ * profiler's alloc.rate.norm is bytes allocated per row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GeneratorBenchmark {
+    private static final int ROWS = 1000;
+
+    private TablePlan integerPlan;
+
+    private TablePlan doublePlan;
+
+    private TablePlan stringPlan;
+
+    private TablePlan dictionaryPlan;
+
+    private TablePlan rowPlan;
+
+    private RowRandom random;
+
+    private RowSink sink;
+
+    private static TablePlan compile(SqlColumn... columns)
+    {
+        SqlTable table = new SqlTable("t", columns, new Reference[0], ROWS, 0, 0);
+        Map<String, Integer> rowCounts = new HashMap<>();
+        rowCounts.put(table.getTableName(), ROWS);
+        return DataGenerator.compileTable(table, new Reference[0], rowCounts, 42);
+    }
+
+    @Setup
+    public void setUp(Blackhole blackhole)
+    {
+        SqlColumn integer = new SqlNumericColumn("i", "integer", 1000, 20);
+        SqlColumn dbl = new SqlNumericColumn("d", "double", 50, 10);
+        SqlColumn string = new SqlStringColumn("s", "string", 10, 30, 0);
+        SqlColumn dictionary = new SqlStringColumn("c", "string", 10, 30, 16);
+        SqlColumn bool = new SqlNonNumericColumn("b", "boolean");
+        integerPlan = compile(integer);
+        doublePlan = compile(dbl);
+        stringPlan = compile(string);
+        dictionaryPlan = compile(dictionary);
+        rowPlan = compile(string, dictionary, integer, dbl, bool);
+        random = Randoms.forRows(42, "t");
+        sink = new BlackholeRowSink(blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void integerColumn() throws Exception
+    {
+        integerPlan.writeRows(sink, 0, ROWS, random);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void doubleColumn() throws Exception
+    {
+        doublePlan.writeRows(sink, 0, ROWS, random);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void stringColumn() throws Exception
+    {
+        stringPlan.writeRows(sink, 0, ROWS, random);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void dictionaryStringColumn() throws Exception
+    {
+        dictionaryPlan.writeRows(sink, 0, ROWS, random);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mixedRow() throws Exception
+    {
+        rowPlan.writeRows(sink, 0, ROWS, random);
+    }
+}
@@ -0,0 +1,68 @@
+package main.com.company.parsers;
+
+import main.com.company.models.SqlDatabase;
+import main.com.company.models.SqlTable;
+import org.w3c.dom.*;
+import org.xml.sax.SAXException;
+
+import javax.management.modelmbean.XMLParseException;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Parses tables declaration through a DOM tree with the same validation as {@link XmlParser}. Baseline of
+ * {@link XmlParserBenchmark}, the generator itself parses declarations only with the streaming reader.
+ */
+class DomXmlParser {
+    private static XmlParser.Attributes getAttributes(Node node)
+    {
+        NamedNodeMap attrs = node.getAttributes();
+        return (name) -> {
+            Node attr = attrs.getNamedItem(name);
+            return attr == null ? null : attr.getNodeValue();
+        };
+    }
+
+    static SqlDatabase fromFile(String filePath) throws
+            IOException,
+            SAXException,
+            XMLParseException
+    {
+        Document doc;
+        try {
+            DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+            doc = builder.parse(filePath);
+        } catch (ParserConfigurationException e) {
+            throw new XMLParseException(e, e.getMessage());
+        }
+        Element root = doc.getDocumentElement();
+        NodeList tableNodes = root.getElementsByTagName("table");
+        Set<String> tableNames = new TreeSet<>();
+        List<SqlTable> tables = new ArrayList<>();
+        for (int i = 0; i < tableNodes.getLength(); ++i) {
+            Element item = (Element)(tableNodes.item(i));
+            XmlParser.TableBuilder table = new XmlParser.TableBuilder(getAttributes(item), tableNames);
+            NodeList columnNodes = item.getElementsByTagName("column");
+            for (int j = 0; j < columnNodes.getLength(); ++j) {
+                table.addColumn(getAttributes(columnNodes.item(j)));
+            }
+            NodeList refNodes = item.getElementsByTagName("reference");
+            for (int j = 0; j < refNodes.getLength(); ++j) {
+                table.addReference(getAttributes(refNodes.item(j)));
+            }
+            NodeList indexNodes = item.getElementsByTagName("index");
+            for (int j = 0; j < indexNodes.getLength(); ++j) {
+                table.addIndex(getAttributes(indexNodes.item(j)));
+            }
+            tables.add(table.build());
+        }
+        String databaseName = root.hasAttribute("name") ? root.getAttribute("name") : null;
+        return XmlParser.buildDatabase(databaseName, tables, tableNames);
+    }
+}
@@ -0,0 +1,36 @@
+package main.com.company.parsers;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Writes tables declarations of a given size for benchmarks. Every table has a column of each type and references
+ * the previous table.
+ */
+public class SyntheticSchema {
+    public static File write(int tablesCount, int mean) throws
+            IOException
+    {
+        File file = File.createTempFile("schema_" + tablesCount + "_", ".xml");
+        file.deleteOnExit();
+        try (PrintWriter out = new PrintWriter(new FileWriter(file))) {
+            out.println("<database name=\"benchmark\">");
+            for (int i = 0; i < tablesCount; ++i) {
+                out.println("  <table name=\"table" + i + "\" mean=\"" + mean + "\" dispersion=\"0\">");
+                out.println("    <column name=\"title\" type=\"string\" minLength=\"10\" maxLength=\"30\"/>");
+                out.println("    <column name=\"category\" type=\"string\" cardinality=\"16\"/>");
+                out.println("    <column name=\"amount\" type=\"integer\" mean=\"1000\" dispersion=\"20\"/>");
+                out.println("    <column name=\"price\" type=\"double\" mean=\"50\" dispersion=\"10\"/>");
+                out.println("    <column name=\"active\" type=\"boolean\"/>");
+                if (i > 0) {
+                    out.println("    <reference table=\"table" + (i - 1) + "\" columnName=\"parent_id\"/>");
+                }
+                out.println("  </table>");
+            }
+            out.println("</database>");
+        }
+        return file;
+    }
+}
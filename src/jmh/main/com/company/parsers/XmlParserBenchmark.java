@@ -0,0 +1,58 @@
+package main.com.company.parsers;
+
+import main.com.company.models.SqlDatabase;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class XmlParserBenchmark {
+    @Param({"10", "100", "1000", "5000"})
+    public int tablesCount;
+
+    private File schema;
+
+    private File cacheDirectory;
+
+    @Setup
+    public void setUp() throws Exception
+    {
+        schema = SyntheticSchema.write(tablesCount, 1000);
+        cacheDirectory = Files.createTempDirectory("schema-cache").toFile();
+        SchemaCache.fromFile(schema.getPath(), cacheDirectory);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        for (File f : cacheDirectory.listFiles()) {
+            f.delete();
+        }
+        cacheDirectory.delete();
+    }
+
+    @Benchmark
+    public SqlDatabase stax() throws Exception
+    {
+        return XmlParser.fromFile(schema.getPath());
+    }
+
+    @Benchmark
+    public SqlDatabase cached() throws Exception
+    {
+        return SchemaCache.fromFile(schema.getPath(), cacheDirectory);
+    }
+
+    @Benchmark
+    public SqlDatabase dom() throws Exception
+    {
+        return DomXmlParser.fromFile(schema.getPath());
+    }
+}
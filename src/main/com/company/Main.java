@@ -4,16 +4,162 @@ import main.com.company.generators.DataGenerator;
 
 public class Main {
 
-    private static final int ARGS_COUNT = 2;
+    private static final int MIN_ARGS_COUNT = 2;
 
-    public static void main(String[] args)
+    private static final int MAX_ARGS_COUNT = 3;
+
+    private static final String DUMP_COMMAND = "dump";
+
+    private static final int MIN_DUMP_ARGS_COUNT = 4;
+
+    private static final int MAX_DUMP_ARGS_COUNT = 5;
+
+    private static final String RESUME_COMMAND = "resume";
+
+    private static final int RESUME_ARGS_COUNT = 3;
+
+    private static final String APPEND_COMMAND = "append";
+
+    private static final String DECLARED_TARGET = "declared";
+
+    private static final int MIN_APPEND_ARGS_COUNT = 4;
+
+    private static final int MAX_APPEND_ARGS_COUNT = 5;
+
+    private static final String PLAN_COMMAND = "plan";
+
+    private static final int MIN_PLAN_ARGS_COUNT = 3;
+
+    private static final int MAX_PLAN_ARGS_COUNT = 5;
+
+    private static final String SIZE_UNITS = "KMGT";
+
+    private static final String SNAPSHOT_COMMAND = "snapshot";
+
+    private static final int MIN_SNAPSHOT_ARGS_COUNT = 4;
+
+    private static final int MAX_SNAPSHOT_ARGS_COUNT = 5;
+
+    private static final String REPLAY_COMMAND = "replay";
+
+    private static final int REPLAY_ARGS_COUNT = 3;
+
+    private static Long getGivenSeed(String[] args, int seedIndex)
+    {
+        return args.length > seedIndex ? Long.valueOf(args[seedIndex]) : null;
+    }
+
+    private static long getSeed(String[] args, int seedIndex)
+    {
+        if (args.length > seedIndex) {
+            return Long.parseLong(args[seedIndex]);
+        }
+        long seed = System.currentTimeMillis();
+        System.out.println("Using seed " + seed);
+        return seed;
+    }
+
+    private static void plan(String[] args) throws
+            Exception
     {
-        if (args.length != ARGS_COUNT) {
-            System.out.println("Invalid arguments count, needs " + ARGS_COUNT);
+        long seed = getSeed(args, MAX_PLAN_ARGS_COUNT - 1);
+        if (args.length == MIN_PLAN_ARGS_COUNT) {
+            DataGenerator.planDatabase(args[1], args[2], seed);
             return;
         }
+        String value = args[3].toUpperCase();
+        int unit = value.isEmpty() ? -1 : SIZE_UNITS.indexOf(value.charAt(value.length() - 1));
+        if (unit >= 0) {
+            double size = Double.valueOf(value.substring(0, value.length() - 1));
+            DataGenerator.planDatabaseToSize(args[1], args[2], (long)(size * (1L << (10 * (unit + 1)))), seed);
+        } else {
+            DataGenerator.planDatabase(args[1], args[2], Double.valueOf(value), seed);
+        }
+    }
+
+    public static void main(String[] args)
+    {
         try {
-            System.out.println(DataGenerator.generateDatabase(args[0], args[1]) ? "Database was generated" : "Database was not generated");
+            if (args.length > 0 && args[0].equals(DUMP_COMMAND)) {
+                if (args.length < MIN_DUMP_ARGS_COUNT || args.length > MAX_DUMP_ARGS_COUNT) {
+                    System.out.println("Invalid arguments count, usage: " + DUMP_COMMAND
+                            + " <properties file> <tables declaration file> <output directory> [seed]");
+                    return;
+                }
+                boolean dumped = DataGenerator.dumpDatabase(args[1], args[2], args[3], getSeed(args, MAX_DUMP_ARGS_COUNT - 1));
+                System.out.println(dumped ? "Database was dumped" : "Database was not dumped");
+                return;
+            }
+            if (args.length > 0 && args[0].equals(SNAPSHOT_COMMAND)) {
+                if (args.length < MIN_SNAPSHOT_ARGS_COUNT || args.length > MAX_SNAPSHOT_ARGS_COUNT) {
+                    System.out.println("Invalid arguments count, usage: " + SNAPSHOT_COMMAND
+                            + " <properties file> <tables declaration file> <snapshot file> [seed]");
+                    return;
+                }
+                boolean written = DataGenerator.snapshotDatabase(args[1], args[2], args[3],
+                        getSeed(args, MAX_SNAPSHOT_ARGS_COUNT - 1));
+                System.out.println(written ? "Snapshot was written" : "Snapshot was not written");
+                return;
+            }
+            if (args.length > 0 && args[0].equals(REPLAY_COMMAND)) {
+                if (args.length != REPLAY_ARGS_COUNT) {
+                    System.out.println("Invalid arguments count, usage: " + REPLAY_COMMAND
+                            + " <connection properties file> <snapshot file>");
+                    return;
+                }
+                boolean replayed = DataGenerator.replaySnapshot(args[1], args[2]);
+                System.out.println(replayed ? "Database was replayed" : "Database was not replayed");
+                return;
+            }
+            if (args.length > 0 && args[0].equals(RESUME_COMMAND)) {
+                if (args.length != RESUME_ARGS_COUNT) {
+                    System.out.println("Invalid arguments count, usage: " + RESUME_COMMAND
+                            + " <connection properties file> <tables declaration file>");
+                    return;
+                }
+                boolean generated = DataGenerator.resumeDatabase(args[1], args[2]);
+                System.out.println(generated ? "Database was generated" : "Database was not generated");
+                return;
+            }
+            if (args.length > 0 && args[0].equals(PLAN_COMMAND)) {
+                if (args.length < MIN_PLAN_ARGS_COUNT || args.length > MAX_PLAN_ARGS_COUNT) {
+                    System.out.println("Invalid arguments count, usage: " + PLAN_COMMAND
+                            + " <properties file> <tables declaration file> [scale factor | target size like 20G] [seed]");
+                    return;
+                }
+                plan(args);
+                return;
+            }
+            if (args.length > 0 && args[0].equals(APPEND_COMMAND)) {
+                if (args.length < MIN_APPEND_ARGS_COUNT || args.length > MAX_APPEND_ARGS_COUNT) {
+                    System.out.println("Invalid arguments count, usage: " + APPEND_COMMAND
+                            + " <connection properties file> <tables declaration file> <" + DECLARED_TARGET
+                            + " | growth percentage%> [seed]");
+                    return;
+                }
+                String target = args[3];
+                boolean generated;
+                if (target.equals(DECLARED_TARGET)) {
+                    generated = DataGenerator.appendDatabase(args[1], args[2], getGivenSeed(args, MAX_APPEND_ARGS_COUNT - 1));
+                } else {
+                    double growth = target.endsWith("%") ? Double.valueOf(target.substring(0, target.length() - 1)) : -1;
+                    if (growth < 0) {
+                        System.out.println("Append target must be \"" + DECLARED_TARGET
+                                + "\" or a non-negative growth percentage like \"50%\"");
+                        return;
+                    }
+                    generated = DataGenerator.appendDatabase(args[1], args[2], growth, getGivenSeed(args, MAX_APPEND_ARGS_COUNT - 1));
+                }
+                System.out.println(generated ? "Rows were appended" : "Rows were not appended");
+                return;
+            }
+            if (args.length < MIN_ARGS_COUNT || args.length > MAX_ARGS_COUNT) {
+                System.out.println("Invalid arguments count, needs " + MIN_ARGS_COUNT + " or " + MAX_ARGS_COUNT
+                        + ": <connection properties file> <tables declaration file> [seed]");
+                return;
+            }
+            boolean generated = DataGenerator.generateDatabase(args[0], args[1], getSeed(args, MAX_ARGS_COUNT - 1));
+            System.out.println(generated ? "Database was generated" : "Database was not generated");
         } catch (Exception e) {
             System.out.println(e.getMessage());
         }
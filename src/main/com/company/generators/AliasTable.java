@@ -0,0 +1,70 @@
+package main.com.company.generators;
+
+/**
+ * Walker's alias method: picks an index with probability proportional to its weight in constant time, using one
+ * random long per sample.
+ */
+final class AliasTable {
+    private final double[] probabilities;
+
+    private final int[] aliases;
+
+    AliasTable(double[] weights)
+    {
+        int n = weights.length;
+        double sum = 0;
+        for (double w : weights) {
+            sum += w;
+        }
+        probabilities = new double[n];
+        aliases = new int[n];
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; ++i) {
+            scaled[i] = weights[i] * n / sum;
+            if (scaled[i] < 1) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int s = small[--smallCount];
+            int l = large[--largeCount];
+            probabilities[s] = scaled[s];
+            aliases[s] = l;
+            scaled[l] += scaled[s] - 1;
+            if (scaled[l] < 1) {
+                small[smallCount++] = l;
+            } else {
+                large[largeCount++] = l;
+            }
+        }
+        while (largeCount > 0) {
+            int l = large[--largeCount];
+            probabilities[l] = 1;
+            aliases[l] = l;
+        }
+        while (smallCount > 0) {
+            int s = small[--smallCount];
+            probabilities[s] = 1;
+            aliases[s] = s;
+        }
+    }
+
+    int size()
+    {
+        return probabilities.length;
+    }
+
+    int next(RowRandom random)
+    {
+        long bits = random.nextLong();
+        int i = (int)(((bits >>> 32) * probabilities.length) >>> 32);
+        double u = (bits & 0xFFFFFFFFL) * 0x1.0p-32;
+        return u < probabilities[i] ? i : aliases[i];
+    }
+}
@@ -0,0 +1,154 @@
+package main.com.company.generators;
+
+import java.sql.*;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Progress of a generation run kept in a table of the generated database. A chunk is recorded in the same
+ * transaction that writes its rows, so an interrupted run can be resumed from the last committed chunks. Resumed
+ * runs use the recorded seed and chunk size and must use the recorded scale, so they produce the same data as an
+ * uninterrupted one. Schema statements commit on their own in MySQL, so their records may be missing after a crash
+ * and the statements must be safe to skip when their result already exists.
+ */
+class Checkpoint {
+    static final String TABLE_NAME = "_generation_checkpoint";
+
+    static final int HEADER_CHUNK = -1;
+
+    static final int LINKS_CHUNK = -2;
+
+    static final int SCHEMA_CHUNK = -3;
+
+    private final boolean enabled;
+
+    private final long seed;
+
+    private final int chunkSize;
+
+    private final double scale;
+
+    private final Map<String, Set<Integer>> committedChunks;
+
+    private Checkpoint(boolean enabled, long seed, int chunkSize, double scale,
+                       Map<String, Set<Integer>> committedChunks)
+    {
+        this.enabled = enabled;
+        this.seed = seed;
+        this.chunkSize = chunkSize;
+        this.scale = scale;
+        this.committedChunks = committedChunks;
+    }
+
+    static Checkpoint disabled(long seed, int chunkSize)
+    {
+        return new Checkpoint(false, seed, chunkSize, 1, new HashMap<>());
+    }
+
+    static Checkpoint create(Connection connection, long seed, int chunkSize, double scale) throws
+            SQLException
+    {
+        Statement s = connection.createStatement();
+        s.executeUpdate("CREATE TABLE " + TABLE_NAME + "(table_name VARCHAR(200) NOT NULL, chunk INTEGER NOT NULL, "
+                + "seed BIGINT NOT NULL, chunk_size INTEGER NOT NULL, scale DOUBLE NOT NULL, PRIMARY KEY (table_name, chunk))");
+        s.close();
+        Checkpoint checkpoint = new Checkpoint(true, seed, chunkSize, scale, new HashMap<>());
+        checkpoint.record(connection, "", HEADER_CHUNK);
+        if (!connection.getAutoCommit()) {
+            connection.commit();
+        }
+        return checkpoint;
+    }
+
+    static Checkpoint load(Connection connection) throws
+            SQLException,
+            DatabaseGenerationException
+    {
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet rs = metaData.getTables(connection.getCatalog(), null, TABLE_NAME, null)) {
+            if (!rs.next()) {
+                throw new DatabaseGenerationException("Database has no checkpoint to resume from");
+            }
+        }
+        Long seed = null;
+        Integer chunkSize = null;
+        Double scale = null;
+        Map<String, Set<Integer>> committedChunks = new HashMap<>();
+        Statement s = connection.createStatement();
+        try (ResultSet rs = s.executeQuery("SELECT table_name, chunk, seed, chunk_size, scale FROM " + TABLE_NAME)) {
+            while (rs.next()) {
+                if (seed == null) {
+                    seed = rs.getLong(3);
+                    chunkSize = rs.getInt(4);
+                    scale = rs.getDouble(5);
+                } else if (seed != rs.getLong(3) || chunkSize != rs.getInt(4) || scale != rs.getDouble(5)) {
+                    throw new DatabaseGenerationException("Checkpoint was written by different generation runs");
+                }
+                committedChunks.computeIfAbsent(rs.getString(1), k -> new HashSet<>()).add(rs.getInt(2));
+            }
+        }
+        s.close();
+        if (seed == null) {
+            throw new DatabaseGenerationException("Checkpoint is empty");
+        }
+        return new Checkpoint(true, seed, chunkSize, scale, committedChunks);
+    }
+
+    boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    long getSeed()
+    {
+        return seed;
+    }
+
+    int getChunkSize()
+    {
+        return chunkSize;
+    }
+
+    double getScale()
+    {
+        return scale;
+    }
+
+    boolean isCommitted(String name, int chunk)
+    {
+        Set<Integer> chunks = committedChunks.get(name);
+        return chunks != null && chunks.contains(chunk);
+    }
+
+    /**
+     * Records a chunk as a part of the connection's current transaction. Does nothing if checkpoints are disabled.
+     */
+    void record(Connection connection, String name, int chunk) throws
+            SQLException
+    {
+        if (!enabled) {
+            return;
+        }
+        try (PreparedStatement ps = connection.prepareStatement("INSERT INTO " + TABLE_NAME + " VALUES (?, ?, ?, ?, ?)")) {
+            ps.setString(1, name);
+            ps.setInt(2, chunk);
+            ps.setLong(3, seed);
+            ps.setInt(4, chunkSize);
+            ps.setDouble(5, scale);
+            ps.executeUpdate();
+        }
+    }
+
+    void drop(Connection connection) throws
+            SQLException
+    {
+        if (!enabled) {
+            return;
+        }
+        Statement s = connection.createStatement();
+        s.executeUpdate("DROP TABLE " + TABLE_NAME);
+        s.close();
+    }
+}
@@ -0,0 +1,76 @@
+package main.com.company.generators;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Fixed-size pool of connections to the generated database, shared by generating workers. Given session queries are
+ * executed once on every connection when it is opened.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private final List<Connection> connections;
+
+    private final BlockingQueue<Connection> idle;
+
+    public ConnectionPool(DataSource dataSource, int size, String... sessionQueries) throws
+            SQLException
+    {
+        connections = new ArrayList<>(size);
+        idle = new ArrayBlockingQueue<>(size);
+        try {
+            for (int i = 0; i < size; ++i) {
+                Connection c = dataSource.getConnection();
+                connections.add(c);
+                try (Statement s = c.createStatement()) {
+                    for (String query : sessionQueries) {
+                        s.execute(query);
+                    }
+                }
+                c.setAutoCommit(false);
+                idle.add(c);
+            }
+        } catch (SQLException e) {
+            close();
+            throw e;
+        }
+    }
+
+    public Connection take() throws
+            SQLException
+    {
+        try {
+            return idle.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection");
+        }
+    }
+
+    public void release(Connection connection)
+    {
+        idle.add(connection);
+    }
+
+    @Override
+    public void close() throws
+            SQLException
+    {
+        SQLException error = null;
+        for (Connection c : connections) {
+            try {
+                c.close();
+            } catch (SQLException e) {
+                error = e;
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+}
@@ -1,54 +1,71 @@
 package main.com.company.generators;
 
-import com.company.models.*;
+import main.com.company.metrics.GenerationMetrics;
+import main.com.company.metrics.TableMetrics;
 import main.com.company.models.*;
+import main.com.company.parsers.SchemaCache;
 import main.com.company.parsers.XmlParser;
+import com.mysql.cj.jdbc.JdbcStatement;
 import com.mysql.cj.jdbc.MysqlDataSource;
 import org.xml.sax.SAXException;
 
 import javax.management.modelmbean.XMLParseException;
+import javax.sql.DataSource;
 import javax.xml.crypto.dsig.XMLSignatureException;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.sql.*;
 import java.util.*;
-import java.util.function.IntFunction;
-import java.util.function.Supplier;
-import java.util.function.ToDoubleBiFunction;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
 
 public class DataGenerator {
-    private static final Random RANDOM = new Random(System.currentTimeMillis() % 1000);
+    private static final int DUMP_BUFFER_SIZE = 1 << 16;
 
-    private static final int MAX_STRING_LENGTH = 20;
+    private static final int DEFAULT_VARCHAR_LENGTH = 100;
 
-    private static final byte ASCII_MIN_BOUND = 32;
+    private static final String SEED_COMMENT_PREFIX = "generated with seed ";
 
-    private static final byte ASCII_CHARACTERS_COUNT = 90;
+    private static final int MAX_IDENTIFIER_LENGTH = 64;
 
-    private static Hashtable<String, Supplier<Object>> NON_NUMERIC_TYPES = new Hashtable<String, Supplier<Object>>() {
+    private static TablePlan.ColumnWriter getStringWriter(SqlStringColumn c, RowRandom columnRandom)
+    {
+        StringGenerator generator = new StringGenerator(c.getMinLength(), c.getMaxLength());
+        if (c.getCardinality() > 0) {
+            String[] dictionary = generator.dictionary(c.getCardinality(), columnRandom);
+            return (sink, column, random, buffer) -> sink.setString(column,
+                    dictionary[random.nextInt(dictionary.length)]);
+        }
+        return (sink, column, random, buffer) -> sink.setAscii(column, buffer, generator.next(random, buffer));
+    }
+
+    private static Hashtable<String, BiFunction<SqlColumn, RowRandom, TablePlan.ColumnWriter>> NON_NUMERIC_TYPES = new Hashtable<String, BiFunction<SqlColumn, RowRandom, TablePlan.ColumnWriter>>() {
         {
-            put("string", () -> {
-                byte[] str = new byte[MAX_STRING_LENGTH];
-                RANDOM.nextBytes(str);
-                for (int i = 0; i < str.length; ++i) {
-                    str[i] = (byte)(str[i] % ASCII_MIN_BOUND + ASCII_CHARACTERS_COUNT);
-                }
-                return "\"" + new String(str) + "\"";
-            });
-            put("boolean", () -> RANDOM.nextBoolean());
+            put("string", (c, columnRandom) -> getStringWriter((SqlStringColumn)c, columnRandom));
+            put("boolean", (c, columnRandom) -> (sink, column, random, buffer) -> sink.setBoolean(column, random.nextBoolean()));
         }
     };
 
-    private static double getDistributedValue(double mean, double dispersion)
-    {
-        return RANDOM.nextGaussian() * mean * dispersion / 100.0 + mean;
-    }
-
-    private static Hashtable<String, ToDoubleBiFunction<Double, Double>> NUMERIC_TYPES = new Hashtable<String, ToDoubleBiFunction<Double, Double>>() {
+    private static Hashtable<String, Function<SqlNumericColumn, TablePlan.ColumnWriter>> NUMERIC_TYPES = new Hashtable<String, Function<SqlNumericColumn, TablePlan.ColumnWriter>>() {
         {
-            put("integer", (mean, dispersion) -> (int)(getDistributedValue(mean, dispersion)));
-            put("double", (mean, dispersion) -> getDistributedValue(mean, dispersion));
+            put("integer", (c) -> {
+                Distributions.DoubleSampler sampler = Distributions.forColumn(c);
+                return (sink, column, random, buffer) -> sink.setInt(column, (int)sampler.next(random));
+            });
+            put("double", (c) -> {
+                Distributions.DoubleSampler sampler = Distributions.forColumn(c);
+                return (sink, column, random, buffer) -> sink.setDouble(column, sampler.next(random));
+            });
         }
     };
 
@@ -61,41 +78,167 @@ public class DataGenerator {
         }
     };
 
-    private static final IntFunction<Integer> GET_FOREIGN_KEY = (maxValue) -> (Math.abs(RANDOM.nextInt()) % maxValue) + 1;
+    /**
+     * Records count of the table, its declared mean is multiplied by the scale factor of the run.
+     */
+    private static int getRecordsCount(SqlTable table, long seed, double scale)
+    {
+        int mean = (int)Math.max(1, Math.min(Math.round(table.getMean() * scale), Integer.MAX_VALUE / 2));
+        int spread = (int)(mean * table.getDispersionPercentage() / 100.0);
+        if (spread == 0) {
+            return mean;
+        }
+        return mean + Randoms.forRecordsCount(seed, table.getTableName()).nextInt() % spread;
+    }
+
+    private static String getColumnNames(SqlTable table, Reference[] refs)
+    {
+        StringBuilder columnNames = new StringBuilder("id");
+        for (SqlColumn column : table.getTableColumns()) {
+            columnNames.append(",").append(column.getColumnName());
+        }
+        for (Reference r : refs) {
+            columnNames.append(",").append(r.getColumnName());
+        }
+        return columnNames.toString();
+    }
+
+    /**
+     * Index of the row stream of a reference: references follow the columns in declaration order.
+     */
+    private static int getReferenceStream(SqlTable table, Reference ref)
+    {
+        Reference[] refs = table.getForeignKeys();
+        for (int i = 0; i < refs.length; ++i) {
+            if (refs[i].getColumnName().equals(ref.getColumnName())) {
+                return table.getTableColumns().length + i;
+            }
+        }
+        throw new IllegalArgumentException("Table \"" + table.getTableName() + "\" has no reference \""
+                + ref.getColumnName() + "\"");
+    }
+
+    static TablePlan compileTable(SqlTable table, Reference[] refs, Map<String, Integer> rowCounts, long seed)
+    {
+        return compileTable(table, refs, rowCounts, seed, Shard.WHOLE);
+    }
 
-    private static boolean fillTable(Connection connection, SqlTable table)
+    /**
+     * Compiles the table once for the whole run: samplers, permutations and dictionaries of the plan are shared by
+     * its copies and slices, which only allocate their own string buffer.
+     */
+    static TablePlan compileTable(SqlTable table, Reference[] refs, Map<String, Integer> rowCounts, long seed,
+                                  Shard shard)
     {
         SqlColumn[] columns = table.getTableColumns();
-        StringBuilder columnNames = new StringBuilder(columns[0].getColumnName());
+        TablePlan.ColumnWriter[] writers = new TablePlan.ColumnWriter[columns.length + refs.length];
+        int[] streams = new int[writers.length];
+        int bufferLength = 0;
+        for (int i = 0; i < columns.length; ++i) {
+            if (columns[i] instanceof SqlStringColumn) {
+                bufferLength = Math.max(bufferLength, ((SqlStringColumn)columns[i]).getMaxLength());
+            }
+            if (columns[i].isUnique()) {
+                writers[i] = UniqueValues.getWriter(table, columns[i], seed);
+            } else if (columns[i] instanceof SqlNumericColumn) {
+                writers[i] = NUMERIC_TYPES.get(columns[i].getColumnType()).apply((SqlNumericColumn)(columns[i]));
+            } else {
+                RowRandom columnRandom = Randoms.forRows(seed, table.getTableName() + "." + columns[i].getColumnName());
+                writers[i] = NON_NUMERIC_TYPES.get(columns[i].getColumnType()).apply(columns[i], columnRandom);
+            }
+            streams[i] = i;
+        }
+        for (int i = 0; i < refs.length; ++i) {
+            String parentName = refs[i].getTableName();
+            int parentRowCount = rowCounts.get(parentName);
+            Distributions.IntSampler sampler = Distributions.forReference(refs[i].getDistribution(), parentRowCount);
+            if (shard.isMovingReferences(parentName)) {
+                writers[columns.length + i] = (sink, column, random, buffer) -> sink.setInt(column,
+                        shard.getParentId(parentName, parentRowCount, sampler.next(random)));
+            } else {
+                writers[columns.length + i] = (sink, column, random, buffer) -> sink.setInt(column,
+                        sampler.next(random));
+            }
+            streams[columns.length + i] = getReferenceStream(table, refs[i]);
+        }
+        // callers generating a table on its own, like the benchmarks, do not count its rows
+        int rowCount = rowCounts.getOrDefault(table.getTableName(), table.getMean());
+        return new TablePlan(writers, streams, bufferLength, shard.getRowOffset(table.getTableName(), rowCount),
+                shard.getRowStride(table.getTableName()));
+    }
+
+    private static String getInsertQuery(SqlTable table, Reference[] refs)
+    {
         StringBuilder values = new StringBuilder("?");
-        for (int i = 1; i < columns.length; ++i) {
-            columnNames.append(",").append(columns[i].getColumnName());
+        for (int i = 1; i < table.getTableColumns().length + refs.length + 1; ++i) {
             values.append(",?");
         }
-        int mean = table.getMean();
-        double dispersion = table.getDispersionPercentage();
-        int recordsCount = mean + RANDOM.nextInt() % (int)(mean * dispersion / 100.0);
-        String insertQuery = "INSERT INTO " + table.getTableName() + " (" + columnNames.toString() + ") VALUES ("
+        return "INSERT INTO " + table.getTableName() + " (" + getColumnNames(table, refs) + ") VALUES ("
                 + values.toString() + ")";
+    }
+
+    static boolean fillTable(Connection connection, SqlTable table, Reference[] refs, TablePlan plan,
+                             int firstRow, int lastRow, int batchSize, RowRandom random, TableMetrics metrics)
+    {
+        String insertQuery = getInsertQuery(table, refs);
+        try (RowSink sink = new JdbcRowSink(connection, insertQuery, batchSize, firstRow, metrics)) {
+            plan.writeRows(sink, firstRow, lastRow, random);
+        } catch (SQLException | IOException e) {
+            System.out.println("Table \"" + table.getTableName() + "\": " + e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    static boolean pipelineTable(Connection connection, SqlTable table, Reference[] refs, TablePlan plan,
+                                 int firstRow, int lastRow, int batchSize, int depth, RowRandom random,
+                                 ExecutorService generators, TableMetrics metrics)
+    {
         try {
-            PreparedStatement s = connection.prepareStatement(insertQuery);
-            boolean result = true;
-            for (int i = 0; i < recordsCount && result; ++i) {
-                int nonRefColumnsCount = columns.length;
-                for (int j = 0; j < nonRefColumnsCount; ++j) {
-                    if (columns[j] instanceof SqlNumericColumn) {
-                        SqlNumericColumn c = (SqlNumericColumn)(columns[j]);
-                        s.setObject(j + 1, NUMERIC_TYPES.get(c.getColumnType()).applyAsDouble(c.getMean(), c.getDispersionPercentage()));
-                    } else {
-                        s.setObject(j + 1, NON_NUMERIC_TYPES.get(columns[j].getColumnType()).get());
-                    }
-                }
-                if (s.executeUpdate() == 0) {
-                    throw new SQLException("Cannot insert another row");
+            RowPipeline.insert(connection, getInsertQuery(table, refs), plan, firstRow, lastRow, batchSize, depth,
+                    random, generators, metrics);
+        } catch (SQLException | IOException e) {
+            System.out.println("Table \"" + table.getTableName() + "\": " + e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    static boolean loadTable(Connection connection, SqlTable table, Reference[] refs, TablePlan plan, int firstRow,
+                             int lastRow, GenerationOptions options, RowRandom random, TableMetrics metrics)
+    {
+        TsvRows rows = new TsvRows((out, row) -> plan.writeRow(out, plan.getRow(row), random),
+                firstRow, lastRow, options.getLoadBufferSize());
+        File spillFile = null;
+        try (Statement s = connection.createStatement()) {
+            String fileName = "stream";
+            if (options.getLoadMode() == GenerationOptions.LoadMode.STREAM) {
+                s.unwrap(JdbcStatement.class).setLocalInfileInputStream(rows.asInputStream());
+            } else {
+                spillFile = File.createTempFile(table.getTableName() + "_", ".tsv", options.getSpillDirectory());
+                try (FileChannel channel = FileChannel.open(spillFile.toPath(), StandardOpenOption.WRITE)) {
+                    rows.writeTo(channel);
                 }
+                fileName = spillFile.getAbsolutePath().replace("\\", "\\\\").replace("'", "\\'");
             }
-        } catch (SQLException e) {
+            long start = System.nanoTime();
+            int loaded = s.executeUpdate("LOAD DATA LOCAL INFILE '" + fileName + "' INTO TABLE " + table.getTableName()
+                    + " CHARACTER SET utf8mb4 (" + getColumnNames(table, refs) + ")");
+            metrics.statementExecuted(System.nanoTime() - start);
+            // LOAD DATA LOCAL skips duplicate and malformed rows with a warning instead of failing
+            if (loaded != lastRow - firstRow) {
+                SQLWarning warning = s.getWarnings();
+                throw new SQLException("only " + loaded + " of " + (lastRow - firstRow) + " rows were accepted"
+                        + (warning == null ? "" : ", first warning: " + warning.getMessage()));
+            }
+        } catch (SQLException | IOException e) {
+            System.out.println("Table \"" + table.getTableName() + "\": rows " + (firstRow + 1) + ".." + lastRow
+                    + " were not loaded: " + e.getMessage());
             return false;
+        } finally {
+            if (spillFile != null && !spillFile.delete()) {
+                System.out.println("Cannot delete spill file \"" + spillFile + "\"");
+            }
         }
         return true;
     }
@@ -107,8 +250,7 @@ public class DataGenerator {
         return s.executeQuery("SELECT SCHEMA_NAME FROM INFORMATION_SCHEMA.SCHEMATA WHERE SCHEMA_NAME = '" + databaseName + "'").next();
     }
 
-    private static void createTableScheme(Connection connection, SqlTable table) throws
-            SQLException
+    static String getCreateTableQuery(SqlTable table)
     {
         StringBuilder createTableQuery = new StringBuilder("CREATE TABLE ");
         String tableName = table.getTableName();
@@ -117,51 +259,799 @@ public class DataGenerator {
             createTableQuery
                     .append(',')
                     .append(column.getColumnName())
-                    .append(' ')
-                    .append(ABSTRACT_TYPES_TO_DATABASE_TYPES.get(column.getColumnType()));
+                    .append(' ');
+            if (column instanceof SqlStringColumn && ((SqlStringColumn)column).getMaxLength() > DEFAULT_VARCHAR_LENGTH) {
+                createTableQuery.append("VARCHAR(").append(((SqlStringColumn)column).getMaxLength()).append(") NOT NULL");
+            } else {
+                createTableQuery.append(ABSTRACT_TYPES_TO_DATABASE_TYPES.get(column.getColumnType()));
+            }
+            if (column.isUnique()) {
+                createTableQuery.append(" UNIQUE");
+            }
         }
         for (Reference r : table.getForeignKeys()) {
             createTableQuery.append(',').append(r.getColumnName()).append(' ').append("INTEGER");
         }
         createTableQuery.append(')');
+        return createTableQuery.toString();
+    }
+
+    /**
+     * Query creating the table for a run of the given seed. The seed is kept in the table comment, so rows can be
+     * appended later with the same unique values and row counts, see {@link #getStoredSeed}.
+     */
+    static String getCreateTableQuery(SqlTable table, int rowCount, long seed)
+    {
+        return getCreateTableQuery(table) + " COMMENT='" + SEED_COMMENT_PREFIX + seed + "'"
+                + TablePartitions.getPartitionClause(table, rowCount);
+    }
+
+    /**
+     * Name of the foreign key constraint of the reference, shortened with a hash to the MySQL identifier length.
+     */
+    private static String getConstraintName(SqlTable table, Reference ref)
+    {
+        String name = table.getTableName() + "_" + ref.getColumnName() + "_fk";
+        if (name.length() <= MAX_IDENTIFIER_LENGTH) {
+            return name;
+        }
+        String hash = Integer.toHexString(name.hashCode());
+        return name.substring(0, MAX_IDENTIFIER_LENGTH - hash.length() - 1) + "_" + hash;
+    }
+
+    private static String getAddConstraintQuery(SqlTable table, Reference ref)
+    {
+        return "ALTER TABLE " + table.getTableName() + " ADD CONSTRAINT " + getConstraintName(table, ref)
+                + " FOREIGN KEY (" + ref.getColumnName() + ") REFERENCES " + ref.getTableName() + "(id)";
+    }
+
+    private static String getCreateIndexQuery(SqlTable table, SqlIndex index)
+    {
+        return "CREATE INDEX " + index.getIndexName() + " ON " + table.getTableName() + " ("
+                + String.join(",", index.getColumnNames()) + ")";
+    }
+
+    static void createTableScheme(Connection connection, SqlTable table, int rowCount, long seed,
+                                  boolean deferIndexes) throws
+            SQLException
+    {
         Statement s = connection.createStatement();
-        s.executeUpdate(createTableQuery.toString());
+        s.executeUpdate(getCreateTableQuery(table, rowCount, seed));
+        if (!deferIndexes) {
+            for (SqlIndex i : table.getIndexes()) {
+                s.executeUpdate(getCreateIndexQuery(table, i));
+            }
+        }
         s.close();
     }
 
-    private static boolean fillForeignKeys(Connection connection, SqlTable table) throws SQLException {
-        Reference[] refs = table.getForeignKeys();
+    static boolean fillForeignKeys(Connection connection, SqlTable table, Reference[] refs,
+                                   Map<String, Integer> rowCounts, int firstRow, int batchSize, int linkChunkSize,
+                                   RowRandom random, Shard shard) throws
+            SQLException
+    {
         int refCount = refs.length;
-        int[] maxId = new int[refCount];
-            Statement temp = connection.createStatement();
-            for (int i = 0; i < refCount; ++i) {
-                ResultSet rs = temp.executeQuery("SELECT MAX(id) FROM " + refs[i].getTableName());
-                rs.next();
-                maxId[i] = rs.getInt(1);
-            }
-            String tableName = table.getTableName();
-            StringBuilder updateQuery = new StringBuilder("UPDATE " + tableName + " SET ");
-            for (Reference ref : refs) {
-                updateQuery.append(ref.getColumnName()).append("=?,");
-            }
-            updateQuery.deleteCharAt(updateQuery.length() - 1);
-            updateQuery.append(" WHERE id = ?");
-            PreparedStatement ps = connection.prepareStatement(updateQuery.toString());
-            ResultSet rs = temp.executeQuery("SELECT COUNT(*) FROM " + tableName);
-            rs.next();
-            int rowCount = rs.getInt(1);
-            temp.close();
-            for (int i = 0; i < rowCount; ++i) {
-                for (int j = 0; j < refCount; ++j) {
-                    ps.setInt(j + 1, GET_FOREIGN_KEY.apply(maxId[j]));
-                }
-                ps.setInt(refCount + 1, i + 1);
-                ps.executeUpdate();
+        Distributions.IntSampler[] samplers = new Distributions.IntSampler[refCount];
+        int[] streams = new int[refCount];
+        for (int i = 0; i < refCount; ++i) {
+            String parentName = refs[i].getTableName();
+            int parentRowCount = rowCounts.get(parentName);
+            Distributions.IntSampler sampler = Distributions.forReference(refs[i].getDistribution(), parentRowCount);
+            samplers[i] = shard.isMovingReferences(parentName)
+                    ? (r) -> shard.getParentId(parentName, parentRowCount, sampler.next(r))
+                    : sampler;
+            streams[i] = getReferenceStream(table, refs[i]);
+        }
+        String tableName = table.getTableName();
+        String stageName = tableName + "_links";
+        StringBuilder createQuery = new StringBuilder("CREATE TEMPORARY TABLE " + stageName + "(id INTEGER NOT NULL PRIMARY KEY");
+        StringBuilder insertQuery = new StringBuilder("INSERT INTO " + stageName + " VALUES (?");
+        StringBuilder updateQuery = new StringBuilder("UPDATE " + tableName + " t JOIN " + stageName + " l ON t.id = l.id SET ");
+        for (int i = 0; i < refCount; ++i) {
+            String columnName = refs[i].getColumnName();
+            createQuery.append(',').append(columnName).append(" INTEGER NOT NULL");
+            insertQuery.append(",?");
+            updateQuery.append(i == 0 ? "" : ",").append("t.").append(columnName).append("=l.").append(columnName);
+        }
+        createQuery.append(')');
+        insertQuery.append(')');
+        updateQuery.append(" WHERE l.id BETWEEN ? AND ?");
+        // the stage table outlives a rollback, a failed attempt on the same connection may have left it behind
+        String dropQuery = "DROP TEMPORARY TABLE IF EXISTS " + stageName;
+        int rowCount = rowCounts.get(tableName);
+        int shardRowCount = shard.getRowCount(tableName, rowCount);
+        int rowOffset = shard.getRowOffset(tableName, rowCount);
+        int rowStride = shard.getRowStride(tableName);
+        try (Statement s = connection.createStatement()) {
+            s.executeUpdate(dropQuery);
+            s.executeUpdate(createQuery.toString());
+            try {
+                try (JdbcRowSink sink = new JdbcRowSink(connection, insertQuery.toString(), batchSize, firstRow)) {
+                    for (int i = firstRow; i < shardRowCount; ++i) {
+                        int row = rowOffset + i * rowStride;
+                        sink.setInt(0, row + 1);
+                        for (int j = 0; j < refCount; ++j) {
+                            random.seek(row, streams[j]);
+                            sink.setInt(j + 1, samplers[j].next(random));
+                        }
+                        sink.endRow();
+                    }
+                    sink.flush();
+                }
+                int lastId = rowOffset + (shardRowCount - 1) * rowStride + 1;
+                int chunkSize = linkChunkSize == 0 ? rowCount : linkChunkSize;
+                try (PreparedStatement ps = connection.prepareStatement(updateQuery.toString())) {
+                    for (int first = rowOffset + firstRow * rowStride + 1; first <= lastId; first += chunkSize) {
+                        ps.setInt(1, first);
+                        ps.setInt(2, Math.min(first + chunkSize - 1, lastId));
+                        ps.executeUpdate();
+                    }
+                }
+            } finally {
+                s.executeUpdate(dropQuery);
+            }
+        }
+        return true;
+    }
+
+    interface TableJob {
+        boolean run(Connection connection) throws SQLException;
+    }
+
+    static boolean runInTransaction(ConnectionPool pool, SqlTable table, TableMetrics metrics, TableJob job)
+    {
+        return runInTransaction(pool, table, metrics, 0, job);
+    }
+
+    /**
+     * Runs the job in a transaction of a pooled connection. The rows the job writes are counted once committed, so
+     * rolled back rows never show in the progress of the table.
+     */
+    static boolean runInTransaction(ConnectionPool pool, SqlTable table, TableMetrics metrics, long rowCount,
+                                    TableJob job)
+    {
+        Connection connection;
+        try {
+            connection = pool.take();
+        } catch (SQLException e) {
+            System.out.println("Table \"" + table.getTableName() + "\": " + e.getMessage());
+            return false;
+        }
+        try {
+            if (job.run(connection)) {
+                long start = System.nanoTime();
+                connection.commit();
+                metrics.committed(System.nanoTime() - start);
+                if (rowCount > 0) {
+                    metrics.rowsWritten(rowCount);
+                }
+                return true;
+            }
+            connection.rollback();
+        } catch (SQLException e) {
+            System.out.println("Table \"" + table.getTableName() + "\": " + e.getMessage() + ". Rolling back..");
+            try {
+                connection.rollback();
+            } catch (SQLException ignored) {
+            }
+        } finally {
+            pool.release(connection);
+        }
+        return false;
+    }
+
+    private static boolean allSucceeded(Collection<CompletableFuture<Boolean>> results)
+    {
+        boolean result = true;
+        for (CompletableFuture<Boolean> r : results) {
+            result &= r.join();
+        }
+        return result;
+    }
+
+    private static int getBatchSize(SqlTable table, GenerationOptions options)
+    {
+        return table.getBatchSize() == 0 ? options.getBatchSize() : table.getBatchSize();
+    }
+
+    /**
+     * Partitions of the rows of the table part to fill, a single one if rows are added to existing ones.
+     */
+    private static List<TablePartitions.Partition> getPartitions(SqlTable table, int existingCount, int rowCount,
+                                                                 Shard shard)
+    {
+        if (existingCount == 0) {
+            return TablePartitions.split(table, rowCount, shard);
+        }
+        return Collections.singletonList(TablePartitions.whole(shard.getRowCount(table.getTableName(), rowCount)));
+    }
+
+    /**
+     * Fills the tables in chunks of rows. Chunks of a table which is not partitioned are filled in parallel, chunks of
+     * a partition are filled one after another, so every partition is loaded by one worker at a time and all its
+     * partitions are loaded in parallel.
+     */
+    private static boolean fillTables(ConnectionPool pool, ExecutorService executor, SqlDatabase database,
+                                      Map<String, Integer> existingRows, Map<String, Integer> rowCounts,
+                                      GenerationOptions options, long seed, Checkpoint checkpoint,
+                                      GenerationMetrics metrics, Shard shard)
+    {
+        int chunkSize = checkpoint.getChunkSize();
+        int pipelineDepth = options.getPipelineDepth();
+        ExecutorService generators = pipelineDepth == 0 ? null
+                : Executors.newFixedThreadPool(options.getGeneratorThreads());
+        Map<String, CompletableFuture<Boolean>> results = new HashMap<>();
+        for (SqlTable t : database.getGenerationOrder()) {
+            String tableName = t.getTableName();
+            Reference[] refs = database.getInlineReferences(t);
+            List<CompletableFuture<Boolean>> parents = new ArrayList<>();
+            for (Reference r : refs) {
+                if (!r.getTableName().equals(tableName)) {
+                    parents.add(results.get(r.getTableName()));
+                }
+            }
+            int batchSize = getBatchSize(t, options);
+            TableMetrics tableMetrics = metrics.getTable(tableName);
+            int existingCount = existingRows.getOrDefault(tableName, 0);
+            int recordsCount = shard.getRowCount(tableName, rowCounts.get(tableName));
+            CompletableFuture<Void> parentsFilled = CompletableFuture
+                    .allOf(parents.toArray(new CompletableFuture<?>[parents.size()]));
+            TablePlan tablePlan = compileTable(t, refs, rowCounts, seed, shard);
+            List<CompletableFuture<Boolean>> chunks = new ArrayList<>();
+            for (TablePartitions.Partition p : getPartitions(t, existingCount, rowCounts.get(tableName), shard)) {
+                boolean partitioned = p.getNumber() >= 0;
+                AtomicLong partitionStart = new AtomicLong();
+                long partitionRows = 0;
+                CompletableFuture<Boolean> partitionLoaded = null;
+                for (int chunk = existingCount / chunkSize; (long)chunk * chunkSize < p.getRowCount(); ++chunk) {
+                    int chunkIndex = p.getChunk(chunk);
+                    if (checkpoint.isCommitted(tableName, chunkIndex)) {
+                        continue;
+                    }
+                    int firstRow = Math.max(chunk * chunkSize, existingCount);
+                    int lastRow = (int)Math.min((long)(chunk + 1) * chunkSize, p.getRowCount());
+                    partitionRows += lastRow - firstRow;
+                    CompletableFuture<Boolean> previous = partitioned && partitionLoaded != null ? partitionLoaded
+                            : parentsFilled.thenApply(v -> allSucceeded(parents));
+                    CompletableFuture<Boolean> loaded = previous.thenApplyAsync(ok -> ok && runInTransaction(pool, t, tableMetrics, lastRow - firstRow, c -> {
+                        if (tableMetrics.started()) {
+                            System.out.println("Generating \"" + tableName + "\" table..");
+                        }
+                        partitionStart.compareAndSet(0, System.nanoTime());
+                        TablePlan plan = tablePlan.slice(p.getFirstRow(), p.getRowStep());
+                        RowRandom random = Randoms.forRows(seed, tableName);
+                        boolean filled;
+                        if (generators != null) {
+                            filled = pipelineTable(c, t, refs, plan, firstRow, lastRow, batchSize, pipelineDepth,
+                                    random, generators, tableMetrics);
+                        } else if (options.getLoadMode() == GenerationOptions.LoadMode.INSERT) {
+                            filled = fillTable(c, t, refs, plan, firstRow, lastRow, batchSize, random, tableMetrics);
+                        } else {
+                            filled = loadTable(c, t, refs, plan, firstRow, lastRow, options, random, tableMetrics);
+                        }
+                        if (filled) {
+                            checkpoint.record(c, tableName, chunkIndex);
+                        }
+                        return filled;
+                    }), executor);
+                    if (partitioned) {
+                        partitionLoaded = loaded;
+                    } else {
+                        chunks.add(loaded);
+                    }
+                }
+                if (partitionLoaded != null) {
+                    long rows = partitionRows;
+                    chunks.add(partitionLoaded.thenApply(loaded -> {
+                        if (loaded) {
+                            long nanos = System.nanoTime() - partitionStart.get();
+                            tableMetrics.partitionLoaded(p.getNumber(), rows, nanos);
+                            System.out.println(String.format(Locale.ROOT, "Table \"%s\": partition %s of %d rows took %.3f s",
+                                    tableName, p.getName(), rows, nanos / 1e9));
+                        }
+                        return loaded;
+                    }));
+                }
+            }
+            results.put(tableName, CompletableFuture
+                    .allOf(chunks.toArray(new CompletableFuture<?>[chunks.size()]))
+                    .thenApply(v -> allSucceeded(chunks)));
+        }
+        try {
+            return allSucceeded(results.values());
+        } finally {
+            if (generators != null) {
+                generators.shutdownNow();
+            }
+        }
+    }
+
+    private static boolean linkTables(ConnectionPool pool, ExecutorService executor, SqlDatabase database,
+                                      Map<String, Integer> existingRows, Map<String, Integer> rowCounts,
+                                      GenerationOptions options, long seed, Checkpoint checkpoint,
+                                      GenerationMetrics metrics, Shard shard)
+    {
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (SqlTable t : database.getGenerationOrder()) {
+            Reference[] deferredRefs = database.getDeferredReferences(t);
+            int existingCount = existingRows.getOrDefault(t.getTableName(), 0);
+            if (deferredRefs.length == 0
+                    || existingCount == shard.getRowCount(t.getTableName(), rowCounts.get(t.getTableName()))
+                    || checkpoint.isCommitted(t.getTableName(), Checkpoint.LINKS_CHUNK)) {
+                continue;
+            }
+            int batchSize = getBatchSize(t, options);
+            results.add(CompletableFuture.supplyAsync(() -> runInTransaction(pool, t, metrics.getTable(t.getTableName()), c -> {
+                System.out.println("Linking \"" + t.getTableName() + "\" table..");
+                boolean linked = fillForeignKeys(c, t, deferredRefs, rowCounts, existingCount, batchSize,
+                        options.getLinkChunkSize(), Randoms.forRows(seed, t.getTableName()), shard);
+                if (linked) {
+                    checkpoint.record(c, t.getTableName(), Checkpoint.LINKS_CHUNK);
+                }
+                return linked;
+            }), executor));
+        }
+        return allSucceeded(results);
+    }
+
+    /**
+     * References of the table which get foreign key constraints. InnoDB does not support foreign keys on partitioned
+     * tables, so references from or to them are left unconstrained.
+     */
+    private static List<Reference> getConstrainedReferences(SqlDatabase database, SqlTable table)
+    {
+        List<Reference> result = new ArrayList<>();
+        for (Reference r : table.getForeignKeys()) {
+            if (table.getPartitions() == 0 && database.getTable(r.getTableName()).getPartitions() == 0) {
+                result.add(r);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Lower-cased names of the indexes and constraints the table already has.
+     */
+    private static Set<String> getSchemaObjectNames(Connection connection, String tableName) throws
+            SQLException
+    {
+        Set<String> names = new HashSet<>();
+        try (PreparedStatement ps = connection.prepareStatement("SELECT INDEX_NAME FROM INFORMATION_SCHEMA.STATISTICS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? UNION SELECT CONSTRAINT_NAME FROM "
+                + "INFORMATION_SCHEMA.TABLE_CONSTRAINTS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?")) {
+            ps.setString(1, tableName);
+            ps.setString(2, tableName);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    names.add(rs.getString(1).toLowerCase());
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Adds foreign key constraints and, in fast-load mode, secondary indexes once the data is in. Statements on
+     * different tables run in parallel, statements on the same table are run one after another by a single worker.
+     * <p>
+     * MySQL commits every such statement implicitly, so a run may stop after a statement and before its checkpoint
+     * record. Indexes and constraints are therefore named, and the ones a table already has are skipped.
+     */
+    private static boolean completeSchemes(ConnectionPool pool, ExecutorService executor, SqlDatabase database,
+                                           GenerationOptions options, Checkpoint checkpoint, GenerationMetrics metrics)
+    {
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (SqlTable t : database.getGenerationOrder()) {
+            String tableName = t.getTableName();
+            Map<String, String> queries = new LinkedHashMap<>();
+            Map<String, String> objectNames = new HashMap<>();
+            if (options.isFastLoad()) {
+                for (SqlIndex i : t.getIndexes()) {
+                    queries.put(tableName + "#" + i.getIndexName(), getCreateIndexQuery(t, i));
+                    objectNames.put(tableName + "#" + i.getIndexName(), i.getIndexName());
+                }
+            }
+            List<Reference> constrainedRefs = getConstrainedReferences(database, t);
+            for (Reference r : constrainedRefs) {
+                queries.put(tableName + "." + r.getColumnName(), getAddConstraintQuery(t, r));
+                objectNames.put(tableName + "." + r.getColumnName(), getConstraintName(t, r));
+            }
+            if (constrainedRefs.size() < t.getForeignKeys().length) {
+                System.out.println("Table \"" + tableName + "\": foreign keys from or to partitioned tables are "
+                        + "not constrained");
+            }
+            queries.keySet().removeIf(name -> checkpoint.isCommitted(name, Checkpoint.SCHEMA_CHUNK));
+            if (queries.isEmpty()) {
+                continue;
+            }
+            results.add(CompletableFuture.supplyAsync(() -> runInTransaction(pool, t, metrics.getTable(tableName), c -> {
+                Set<String> existingNames = getSchemaObjectNames(c, tableName);
+                Statement s = c.createStatement();
+                for (Map.Entry<String, String> q : queries.entrySet()) {
+                    String objectName = objectNames.get(q.getKey());
+                    if (existingNames.contains(objectName.toLowerCase())) {
+                        System.out.println("Table \"" + tableName + "\": " + objectName + " already exists");
+                    } else {
+                        long start = System.nanoTime();
+                        s.executeUpdate(q.getValue());
+                        System.out.println(String.format(Locale.ROOT, "Table \"%s\": %s took %.3f s", tableName,
+                                q.getValue(), (System.nanoTime() - start) / 1e9));
+                    }
+                    checkpoint.record(c, q.getKey(), Checkpoint.SCHEMA_CHUNK);
+                    c.commit();
+                }
+                s.close();
+                return true;
+            }), executor));
+        }
+        return allSucceeded(results);
+    }
+
+    /**
+     * Fills, links and completes the schema of the tables stored on one server.
+     */
+    private static boolean generateShard(ConnectionPool pool, ExecutorService executor, SqlDatabase database,
+                                         Map<String, Integer> rowCounts, GenerationOptions options, long seed,
+                                         Checkpoint checkpoint, GenerationMetrics metrics, Shard shard)
+    {
+        return fillTables(pool, executor, database, Collections.emptyMap(), rowCounts, options, seed, checkpoint,
+                metrics, shard)
+                && linkTables(pool, executor, database, Collections.emptyMap(), rowCounts, options, seed, checkpoint,
+                metrics, shard)
+                && completeSchemes(pool, executor, database, options, checkpoint, metrics);
+    }
+
+    private static GenerationMetrics createMetrics(SqlDatabase database, Map<String, Integer> existingRows,
+                                                   Map<String, Integer> rowCounts, Checkpoint checkpoint)
+    {
+        GenerationMetrics metrics = new GenerationMetrics(database.getDatabaseName());
+        int chunkSize = checkpoint.getChunkSize();
+        for (SqlTable t : database.getGenerationOrder()) {
+            String tableName = t.getTableName();
+            int existingCount = existingRows.getOrDefault(tableName, 0);
+            long rowsPlanned = 0;
+            for (TablePartitions.Partition p : getPartitions(t, existingCount, rowCounts.get(tableName), Shard.WHOLE)) {
+                for (int chunk = existingCount / chunkSize; (long)chunk * chunkSize < p.getRowCount(); ++chunk) {
+                    if (!checkpoint.isCommitted(tableName, p.getChunk(chunk))) {
+                        rowsPlanned += Math.min((long)(chunk + 1) * chunkSize, p.getRowCount())
+                                - Math.max(chunk * chunkSize, existingCount);
+                    }
+                }
+            }
+            metrics.addTable(tableName, rowsPlanned);
+        }
+        return metrics;
+    }
+
+    private static void finishMetrics(GenerationMetrics metrics, GenerationOptions options, boolean succeeded)
+    {
+        metrics.close();
+        System.out.println(metrics.getProgressLine());
+        if (options.getMetricsFile() != null) {
+            try {
+                metrics.writeSummary(options.getMetricsFile(), succeeded);
+            } catch (IOException e) {
+                System.out.println("Cannot write metrics file \"" + options.getMetricsFile() + "\": " + e.getMessage());
+            }
+        }
+    }
+
+    private static MysqlDataSource createDataSource(Properties props, GenerationOptions options) throws
+            SQLException
+    {
+        MysqlDataSource ds = new MysqlDataSource();
+        ds.setServerName(props.getProperty("server"));
+        ds.setUser(props.getProperty("username"));
+        ds.setPassword(props.getProperty("password"));
+        ds.setRewriteBatchedStatements(true);
+        ds.setAllowLoadLocalInfile(options.getLoadMode() != GenerationOptions.LoadMode.INSERT);
+        return ds;
+    }
+
+    /**
+     * Data source of one of the servers of a sharded run, given as "host" or "host:port".
+     */
+    private static MysqlDataSource createDataSource(Properties props, GenerationOptions options, String server) throws
+            SQLException
+    {
+        MysqlDataSource ds = createDataSource(props, options);
+        int portIndex = server.lastIndexOf(':');
+        ds.setServerName(portIndex < 0 ? server : server.substring(0, portIndex));
+        if (portIndex >= 0) {
+            ds.setPort(Integer.valueOf(server.substring(portIndex + 1)));
+        }
+        return ds;
+    }
+
+    private static String[] getSessionQueries(GenerationOptions options)
+    {
+        return options.isFastLoad()
+                ? new String[]{"SET unique_checks = 0", "SET foreign_key_checks = 0"}
+                : new String[0];
+    }
+
+    private static Properties loadProperties(String filePath) throws
+            IOException
+    {
+        Properties props = new Properties();
+        try (FileInputStream in = new FileInputStream(new File(filePath))) {
+            props.load(in);
+        }
+        return props;
+    }
+
+    private static SqlDatabase parseDeclaration(String tableDeclarationFilePath, GenerationOptions options) throws
+            IOException,
+            SAXException,
+            XMLParseException,
+            XMLSignatureException
+    {
+        if (options.getSchemaCacheDirectory() != null) {
+            return SchemaCache.fromFile(tableDeclarationFilePath, options.getSchemaCacheDirectory());
+        }
+        return XmlParser.fromFile(tableDeclarationFilePath);
+    }
+
+    private static String getDumpFileName(String name, boolean compress)
+    {
+        return name + (compress ? ".sql.gz" : ".sql");
+    }
+
+    private static Writer openDumpFile(File directory, String name, boolean compress) throws
+            IOException
+    {
+        OutputStream out = new FileOutputStream(new File(directory, getDumpFileName(name, compress)));
+        if (compress) {
+            out = new GZIPOutputStream(out, DUMP_BUFFER_SIZE);
+        }
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), DUMP_BUFFER_SIZE);
+    }
+
+    private static boolean dumpTable(File directory, String databaseName, SqlTable table,
+                                     Map<String, Integer> rowCounts, GenerationOptions options, long seed,
+                                     TableMetrics metrics)
+    {
+        String tableName = table.getTableName();
+        Reference[] refs = table.getForeignKeys();
+        TablePlan plan = compileTable(table, refs, rowCounts, seed);
+        int recordsCount = rowCounts.get(tableName);
+        int chunkSize = options.getChunkSize();
+        System.out.println("Dumping \"" + tableName + "\" table..");
+        metrics.started();
+        try (Writer out = openDumpFile(directory, tableName, options.isCompressDump());
+             RowSink sink = new SqlFileRowSink(out, tableName, getColumnNames(table, refs), getBatchSize(table, options))) {
+            out.write("USE " + databaseName + ";\n");
+            out.write(getCreateTableQuery(table, recordsCount, seed));
+            out.write(";\n");
+            RowRandom random = Randoms.forRows(seed, tableName);
+            for (int first = 0; first < recordsCount; first += chunkSize) {
+                int lastRow = Math.min(first + chunkSize, recordsCount);
+                plan.writeRows(sink, first, lastRow, random);
+                metrics.rowsWritten(lastRow - first);
+            }
+        } catch (IOException | SQLException e) {
+            System.out.println("Table \"" + tableName + "\" was not dumped: " + e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Writes the database as SQL files into the directory: the schema, a file per table and the constraints, every
+     * one selecting the database first. The manifest file named after the database lists them in loading order.
+     */
+    public static boolean dumpDatabase(String propertiesFilePath, String tableDeclarationFilePath,
+                                       String outputDirectoryPath, long seed) throws
+            DatabaseGenerationException,
+            IOException,
+            SAXException,
+            XMLParseException,
+            XMLSignatureException
+    {
+        GenerationOptions options = GenerationOptions.fromProperties(loadProperties(propertiesFilePath));
+        SqlDatabase database = parseDeclaration(tableDeclarationFilePath, options);
+        File directory = new File(outputDirectoryPath);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new DatabaseGenerationException("Cannot create output directory \"" + outputDirectoryPath + "\"");
+        }
+        String databaseName = database.getDatabaseName();
+        SqlTable[] tables = database.getGenerationOrder();
+        Map<String, Integer> rowCounts = new HashMap<>();
+        for (SqlTable t : tables) {
+            rowCounts.put(t.getTableName(), getRecordsCount(t, seed, options.getScale()));
+        }
+        checkUniqueColumns(tables, rowCounts);
+        System.out.println("Database dumping has started");
+        File manifest = new File(directory, databaseName + ".manifest");
+        if (manifest.exists() && !manifest.delete()) {
+            throw new DatabaseGenerationException("Cannot delete manifest of previous dump \"" + manifest + "\"");
+        }
+        try (Writer out = openDumpFile(directory, databaseName, false)) {
+            out.write("CREATE DATABASE " + databaseName + ";\n");
+            out.write("USE " + databaseName + ";\n");
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(options.getWorkers());
+        GenerationMetrics metrics = createMetrics(database, Collections.emptyMap(), rowCounts,
+                Checkpoint.disabled(seed, options.getChunkSize()));
+        metrics.start(options.getProgressInterval());
+        boolean dumped = false;
+        try {
+            List<CompletableFuture<Boolean>> results = new ArrayList<>();
+            for (SqlTable t : tables) {
+                TableMetrics tableMetrics = metrics.getTable(t.getTableName());
+                results.add(CompletableFuture.supplyAsync(
+                        () -> dumpTable(directory, databaseName, t, rowCounts, options, seed, tableMetrics),
+                        executor));
+            }
+            dumped = allSucceeded(results);
+        } finally {
+            executor.shutdownNow();
+            finishMetrics(metrics, options, dumped);
+        }
+        if (dumped) {
+            try (Writer out = openDumpFile(directory, databaseName + "_constraints", false)) {
+                out.write("USE " + databaseName + ";\n");
+                for (SqlTable t : tables) {
+                    for (SqlIndex i : t.getIndexes()) {
+                        out.write(getCreateIndexQuery(t, i));
+                        out.write(";\n");
+                    }
+                    for (Reference r : getConstrainedReferences(database, t)) {
+                        out.write(getAddConstraintQuery(t, r));
+                        out.write(";\n");
+                    }
+                }
+            }
+            // files in the order to load them in: schema, tables with parents first, then constraints. The manifest
+            // is written last, so it exists only for complete dumps
+            try (Writer out = new OutputStreamWriter(new FileOutputStream(manifest), StandardCharsets.UTF_8)) {
+                out.write(getDumpFileName(databaseName, false) + "\n");
+                for (SqlTable t : tables) {
+                    out.write(getDumpFileName(t.getTableName(), options.isCompressDump()) + "\n");
+                }
+                out.write(getDumpFileName(databaseName + "_constraints", false) + "\n");
+            }
+        }
+        return dumped;
+    }
+
+    /**
+     * Generates the database into a snapshot file which can then be replayed into any number of servers.
+     */
+    public static boolean snapshotDatabase(String propertiesFilePath, String tableDeclarationFilePath,
+                                           String snapshotFilePath, long seed) throws
+            DatabaseGenerationException,
+            IOException,
+            SAXException,
+            XMLParseException,
+            XMLSignatureException
+    {
+        byte[] declaration = Files.readAllBytes(Paths.get(tableDeclarationFilePath));
+        SqlDatabase database = XmlParser.fromStream(new ByteArrayInputStream(declaration));
+        GenerationOptions options = GenerationOptions.fromProperties(loadProperties(propertiesFilePath));
+        SqlTable[] tables = database.getGenerationOrder();
+        Map<String, Integer> rowCounts = getRowCounts(tables, seed, options.getScale());
+        checkUniqueColumns(tables, rowCounts);
+        System.out.println("Database snapshot writing has started");
+        ExecutorService executor = Executors.newFixedThreadPool(options.getWorkers());
+        GenerationMetrics metrics = createMetrics(database, Collections.emptyMap(), rowCounts,
+                Checkpoint.disabled(seed, options.getChunkSize()));
+        metrics.start(options.getProgressInterval());
+        boolean written = false;
+        File snapshotFile = new File(snapshotFilePath);
+        try {
+            Snapshot.write(snapshotFile, declaration, tables, rowCounts, seed, options.getChunkSize(), executor,
+                    options.getWorkers(), metrics);
+            written = true;
+        } catch (SQLException | IOException e) {
+            System.out.println("Snapshot was not written: " + e.getMessage());
+        } finally {
+            executor.shutdownNow();
+            finishMetrics(metrics, options, written);
+            if (!written && snapshotFile.exists() && !snapshotFile.delete()) {
+                System.out.println("Cannot delete snapshot file \"" + snapshotFile + "\"");
             }
+        }
+        return written;
+    }
+
+    private static boolean replayGroup(Connection connection, SqlTable table, Snapshot snapshot, Snapshot.Group group,
+                                       int batchSize, TableMetrics metrics) throws
+            SQLException
+    {
+        if (metrics.started()) {
+            System.out.println("Replaying \"" + table.getTableName() + "\" table..");
+        }
+        String insertQuery = getInsertQuery(table, table.getForeignKeys());
+        try (JdbcRowSink sink = new JdbcRowSink(connection, insertQuery, batchSize, group.getFirstRow(), metrics)) {
+            snapshot.replay(group, sink);
+        } catch (IOException e) {
+            System.out.println("Table \"" + table.getTableName() + "\": rows " + (group.getFirstRow() + 1) + ".."
+                    + (group.getFirstRow() + group.getRowCount()) + " cannot be read: " + e.getMessage());
+            return false;
+        }
         return true;
     }
 
-    public static boolean generateDatabase(String connectionPropertiesFilePath, String tableDeclarationFilePath) throws
+    /**
+     * Creates the database stored in a snapshot and loads its rows through batched inserts, groups of rows are
+     * loaded in parallel, each in its own transaction. Constraints and indexes are added once all rows are in.
+     */
+    public static boolean replaySnapshot(String connectionPropertiesFilePath, String snapshotFilePath) throws
+            DatabaseGenerationException,
+            IOException,
+            XMLParseException,
+            SQLException
+    {
+        Properties props = loadProperties(connectionPropertiesFilePath);
+        GenerationOptions options = GenerationOptions.fromProperties(props);
+        if (options.getServers().length > 0) {
+            throw new DatabaseGenerationException("Snapshot cannot be replayed into several servers");
+        }
+        MysqlDataSource ds = createDataSource(props, options);
+        boolean replayed = false;
+        try (Snapshot snapshot = Snapshot.open(new File(snapshotFilePath))) {
+            SqlDatabase database = XmlParser.fromStream(new ByteArrayInputStream(snapshot.getDeclaration()));
+            SqlTable[] tables = database.getGenerationOrder();
+            for (SqlTable t : tables) {
+                if (!snapshot.getRowCounts().containsKey(t.getTableName()) || !snapshot.matches(t)) {
+                    throw new DatabaseGenerationException("Snapshot rows of table \"" + t.getTableName()
+                            + "\" do not match its declaration");
+                }
+            }
+            String databaseName = database.getDatabaseName();
+            Connection conn = ds.getConnection();
+            boolean created = false;
+            try {
+                if (databaseExists(conn, databaseName)) {
+                    throw new DatabaseGenerationException("Database \"" + databaseName + "\" already exists");
+                }
+                System.out.println("Database replaying has started, snapshot seed is " + snapshot.getSeed());
+                Statement s = conn.createStatement();
+                s.executeUpdate("CREATE DATABASE " + databaseName);
+                created = true;
+                s.executeUpdate("USE " + databaseName);
+                for (SqlTable t : tables) {
+                    createTableScheme(conn, t, snapshot.getRowCounts().get(t.getTableName()), snapshot.getSeed(),
+                            options.isFastLoad());
+                }
+                s.close();
+                ds.setDatabaseName(databaseName);
+                ExecutorService executor = Executors.newFixedThreadPool(options.getWorkers());
+                Checkpoint checkpoint = Checkpoint.disabled(snapshot.getSeed(), options.getChunkSize());
+                GenerationMetrics metrics = createMetrics(database, Collections.emptyMap(), snapshot.getRowCounts(),
+                        checkpoint);
+                metrics.start(options.getProgressInterval());
+                try (ConnectionPool pool = new ConnectionPool(ds, options.getWorkers(), getSessionQueries(options))) {
+                    List<CompletableFuture<Boolean>> results = new ArrayList<>();
+                    for (Snapshot.Group g : snapshot.getGroups()) {
+                        SqlTable t = database.getTable(g.getTableName());
+                        TableMetrics tableMetrics = metrics.getTable(t.getTableName());
+                        int batchSize = getBatchSize(t, options);
+                        results.add(CompletableFuture.supplyAsync(() -> runInTransaction(pool, t, tableMetrics,
+                                g.getRowCount(), c -> replayGroup(c, t, snapshot, g, batchSize, tableMetrics)), executor));
+                    }
+                    replayed = allSucceeded(results)
+                            && completeSchemes(pool, executor, database, options, checkpoint, metrics);
+                } finally {
+                    executor.shutdownNow();
+                    finishMetrics(metrics, options, replayed);
+                }
+            } catch (SQLException e) {
+                System.out.println(e.getMessage() + ". Aborting replaying..");
+                replayed = false;
+            } finally {
+                if (created && !replayed) {
+                    conn.createStatement().executeUpdate("DROP DATABASE " + databaseName);
+                }
+                conn.close();
+            }
+        }
+        return replayed;
+    }
+
+    public static boolean generateDatabase(String connectionPropertiesFilePath, String tableDeclarationFilePath,
+                                           long seed) throws
             DatabaseGenerationException,
             IOException,
             SAXException,
@@ -169,61 +1059,505 @@ public class DataGenerator {
             XMLSignatureException,
             SQLException
     {
-        SqlDatabase database = XmlParser.fromFile(tableDeclarationFilePath);
-        Properties props = new Properties();
-        props.load(new FileInputStream(new File(connectionPropertiesFilePath)));
-        MysqlDataSource ds = new MysqlDataSource();
-        ds.setServerName(props.getProperty("server"));
-        ds.setUser(props.getProperty("username"));
-        ds.setPassword(props.getProperty("password"));
+        return generateDatabase(connectionPropertiesFilePath, tableDeclarationFilePath, seed, false);
+    }
+
+    /**
+     * Continues an interrupted generation of a database created with the "checkpoint" property set, using the seed
+     * and chunk size recorded in its checkpoint.
+     */
+    public static boolean resumeDatabase(String connectionPropertiesFilePath, String tableDeclarationFilePath) throws
+            DatabaseGenerationException,
+            IOException,
+            SAXException,
+            XMLParseException,
+            XMLSignatureException,
+            SQLException
+    {
+        return generateDatabase(connectionPropertiesFilePath, tableDeclarationFilePath, 0, true);
+    }
+
+    private static boolean generateDatabase(String connectionPropertiesFilePath, String tableDeclarationFilePath,
+                                            long seed, boolean resume) throws
+            DatabaseGenerationException,
+            IOException,
+            SAXException,
+            XMLParseException,
+            XMLSignatureException,
+            SQLException
+    {
+        Properties props = loadProperties(connectionPropertiesFilePath);
+        GenerationOptions options = GenerationOptions.fromProperties(props);
+        SqlDatabase database = parseDeclaration(tableDeclarationFilePath, options);
+        if (options.getServers().length > 0) {
+            if (resume) {
+                throw new DatabaseGenerationException("Sharded generation cannot be resumed");
+            }
+            return generateShardedDatabase(database, props, options, seed);
+        }
+        MysqlDataSource ds = createDataSource(props, options);
+        String databaseName = database.getDatabaseName();
         Connection conn = null;
+        boolean created = false;
+        boolean generated = false;
+        Checkpoint checkpoint = Checkpoint.disabled(seed, options.getChunkSize());
         try {
             conn = ds.getConnection();
-            String databaseName = database.getDatabaseName();
-            if (databaseExists(conn, databaseName)) {
-                throw new DatabaseGenerationException("Database \"" + databaseName + "\" already exists");
-            }
             Statement s = conn.createStatement();
-            System.out.println("Database generating has started");
-            s.executeUpdate("CREATE DATABASE " + databaseName);
-            s.executeUpdate("USE " + databaseName);
-            SqlTable[] tables = database.getDatabaseTables();
-            conn.setAutoCommit(false);
-            for (SqlTable t : tables) {
-                System.out.println("Generating \"" + t.getTableName() + "\" table..");
-                createTableScheme(conn, t);
-                if (!fillTable(conn, t)) {
-                    conn.rollback();
-                    conn.close();
-                    return false;
+            SqlTable[] tables = database.getGenerationOrder();
+            if (resume) {
+                if (!databaseExists(conn, databaseName)) {
+                    throw new DatabaseGenerationException("Database \"" + databaseName + "\" does not exist");
+                }
+                s.executeUpdate("USE " + databaseName);
+                checkpoint = Checkpoint.load(conn);
+                if (checkpoint.getScale() != options.getScale()) {
+                    throw new DatabaseGenerationException("Checkpoint was written with scale " + checkpoint.getScale()
+                            + ", the properties give scale " + options.getScale());
+                }
+                seed = checkpoint.getSeed();
+                System.out.println("Database generating is resumed with seed " + seed);
+            } else {
+                if (databaseExists(conn, databaseName)) {
+                    throw new DatabaseGenerationException("Database \"" + databaseName + "\" already exists");
+                }
+                System.out.println("Database generating has started");
+                s.executeUpdate("CREATE DATABASE " + databaseName);
+                created = true;
+                s.executeUpdate("USE " + databaseName);
+                for (SqlTable t : tables) {
+                    createTableScheme(conn, t, getRecordsCount(t, seed, options.getScale()), seed, options.isFastLoad());
+                }
+                if (options.isCheckpoint()) {
+                    checkpoint = Checkpoint.create(conn, seed, options.getChunkSize(), options.getScale());
                 }
             }
-            System.out.println("Linking tables..");
-            for (SqlTable t : tables) {
-                if (!fillForeignKeys(conn, t)) {
-                    conn.rollback();
-                    conn.close();
-                    return false;
+            ds.setDatabaseName(databaseName);
+            generated = generateTables(ds, database, options, seed, checkpoint);
+            if (generated) {
+                checkpoint.drop(conn);
+            }
+        } catch (SQLException e) {
+            System.out.println(e.getMessage() + ". Aborting generation..");
+            generated = false;
+        } finally {
+            if (conn != null) {
+                if (created && !generated && !checkpoint.isEnabled()) {
+                    conn.createStatement().executeUpdate("DROP DATABASE " + databaseName);
+                } else if (!generated && checkpoint.isEnabled()) {
+                    System.out.println("Committed chunks are kept, generation can be resumed");
                 }
+                conn.close();
             }
+        }
+        return generated;
+    }
+
+    /**
+     * Fills, links and completes the schema of the created tables of the database the data source connects to. Chunks
+     * and schema statements the checkpoint has recorded are skipped.
+     */
+    static boolean generateTables(DataSource ds, SqlDatabase database, GenerationOptions options, long seed,
+                                  Checkpoint checkpoint) throws
+            SQLException,
+            DatabaseGenerationException
+    {
+        SqlTable[] tables = database.getGenerationOrder();
+        Map<String, Integer> rowCounts = new ConcurrentHashMap<>();
+        for (SqlTable t : tables) {
+            rowCounts.put(t.getTableName(), getRecordsCount(t, seed, options.getScale()));
+        }
+        checkUniqueColumns(tables, rowCounts);
+        ExecutorService executor = Executors.newFixedThreadPool(options.getWorkers());
+        GenerationMetrics metrics = createMetrics(database, Collections.emptyMap(), rowCounts, checkpoint);
+        metrics.start(options.getProgressInterval());
+        boolean generated = false;
+        try (ConnectionPool pool = new ConnectionPool(ds, options.getWorkers(), getSessionQueries(options))) {
+            generated = generateShard(pool, executor, database, rowCounts, options, seed, checkpoint, metrics,
+                    Shard.WHOLE);
+        } finally {
+            executor.shutdownNow();
+            finishMetrics(metrics, options, generated);
+        }
+        return generated;
+    }
+
+    /**
+     * Generates the database on all listed servers at once. Every server stores one shard of the rows and is filled
+     * by its own pool of workers and connections.
+     */
+    private static boolean generateShardedDatabase(SqlDatabase database, Properties props, GenerationOptions options,
+                                                   long seed) throws
+            DatabaseGenerationException,
+            SQLException
+    {
+        String[] servers = options.getServers();
+        String databaseName = database.getDatabaseName();
+        SqlTable[] tables = database.getGenerationOrder();
+        Map<String, Integer> rowCounts = getRowCounts(tables, seed, options.getScale());
+        checkUniqueColumns(tables, rowCounts);
+        Shard[] shards = Shard.split(tables, rowCounts, options.getShardBy(), servers.length);
+        MysqlDataSource[] dataSources = new MysqlDataSource[servers.length];
+        Connection[] connections = new Connection[servers.length];
+        boolean[] created = new boolean[servers.length];
+        boolean generated = false;
+        try {
+            for (int i = 0; i < servers.length; ++i) {
+                dataSources[i] = createDataSource(props, options, servers[i]);
+                connections[i] = dataSources[i].getConnection();
+                if (databaseExists(connections[i], databaseName)) {
+                    throw new DatabaseGenerationException("Database \"" + databaseName + "\" already exists on \""
+                            + servers[i] + "\"");
+                }
+            }
+            System.out.println("Database generating has started on " + servers.length + " shards");
+            for (int i = 0; i < servers.length; ++i) {
+                Statement s = connections[i].createStatement();
+                s.executeUpdate("CREATE DATABASE " + databaseName);
+                created[i] = true;
+                s.executeUpdate("USE " + databaseName);
+                for (SqlTable t : tables) {
+                    createTableScheme(connections[i], t, rowCounts.get(t.getTableName()), seed,
+                            options.isFastLoad());
+                }
+                s.close();
+                dataSources[i].setDatabaseName(databaseName);
+            }
+            Map<String, Integer> plannedRows = new HashMap<>();
             for (SqlTable t : tables) {
-                String tableName = t.getTableName();
-                for (Reference r : t.getForeignKeys()) {
-                    s.executeUpdate("ALTER TABLE " + tableName + " ADD CONSTRAINT FOREIGN KEY (" + r.getColumnName()
-                            + ") REFERENCES " + r.getTableName() + "(id)");
+                int rows = 0;
+                for (Shard shard : shards) {
+                    rows += shard.getRowCount(t.getTableName(), rowCounts.get(t.getTableName()));
                 }
+                plannedRows.put(t.getTableName(), rows);
+            }
+            Checkpoint checkpoint = Checkpoint.disabled(seed, options.getChunkSize());
+            GenerationMetrics metrics = createMetrics(database, Collections.emptyMap(), plannedRows, checkpoint);
+            metrics.start(options.getProgressInterval());
+            ExecutorService coordinators = Executors.newFixedThreadPool(servers.length);
+            List<ExecutorService> executors = new ArrayList<>();
+            List<ConnectionPool> pools = new ArrayList<>();
+            try {
+                List<CompletableFuture<Boolean>> results = new ArrayList<>();
+                for (int i = 0; i < servers.length; ++i) {
+                    ExecutorService executor = Executors.newFixedThreadPool(options.getWorkers());
+                    executors.add(executor);
+                    ConnectionPool pool = new ConnectionPool(dataSources[i], options.getWorkers(),
+                            getSessionQueries(options));
+                    pools.add(pool);
+                    Shard shard = shards[i];
+                    results.add(CompletableFuture.supplyAsync(() -> generateShard(pool, executor, database, rowCounts,
+                            options, seed, checkpoint, metrics, shard), coordinators));
+                }
+                generated = allSucceeded(results);
+            } finally {
+                coordinators.shutdownNow();
+                for (ExecutorService e : executors) {
+                    e.shutdownNow();
+                }
+                for (ConnectionPool p : pools) {
+                    p.close();
+                }
+                finishMetrics(metrics, options, generated);
             }
-            conn.commit();
         } catch (SQLException e) {
-            System.out.println(e.getMessage() + "Aborting transaction..");
-            conn.rollback();
-            conn.createStatement().executeUpdate("DROP DATABASE " + database.getDatabaseName());
-            return false;
+            System.out.println(e.getMessage() + ". Aborting generation..");
+            generated = false;
         } finally {
-            if (conn != null) {
-                conn.close();
+            for (int i = 0; i < servers.length; ++i) {
+                if (connections[i] == null) {
+                    continue;
+                }
+                if (created[i] && !generated) {
+                    connections[i].createStatement().executeUpdate("DROP DATABASE " + databaseName);
+                }
+                connections[i].close();
             }
         }
-        return true;
+        return generated;
+    }
+
+    /**
+     * Appends rows to an existing generated database until every table reaches its declared records count. Existing
+     * rows are left untouched, new foreign keys point into the enlarged parent tables. The seed may be null, the one
+     * stored when the tables were created is used then.
+     */
+    public static boolean appendDatabase(String connectionPropertiesFilePath, String tableDeclarationFilePath,
+                                         Long seed) throws
+            DatabaseGenerationException,
+            IOException,
+            SAXException,
+            XMLParseException,
+            XMLSignatureException,
+            SQLException
+    {
+        return appendDatabase(connectionPropertiesFilePath, tableDeclarationFilePath, null, seed);
+    }
+
+    /**
+     * Appends rows to an existing generated database, growing every table by the given percentage of its rows.
+     */
+    public static boolean appendDatabase(String connectionPropertiesFilePath, String tableDeclarationFilePath,
+                                         double growthPercentage, Long seed) throws
+            DatabaseGenerationException,
+            IOException,
+            SAXException,
+            XMLParseException,
+            XMLSignatureException,
+            SQLException
+    {
+        return appendDatabase(connectionPropertiesFilePath, tableDeclarationFilePath, (Double)growthPercentage, seed);
+    }
+
+    private static Map<String, Integer> getExistingRows(Connection connection, SqlTable[] tables) throws
+            SQLException,
+            DatabaseGenerationException
+    {
+        Map<String, Integer> existingRows = new HashMap<>();
+        Statement s = connection.createStatement();
+        for (SqlTable t : tables) {
+            try (ResultSet rs = s.executeQuery("SELECT COUNT(*), COALESCE(MAX(id), 0) FROM " + t.getTableName())) {
+                rs.next();
+                int count = rs.getInt(1);
+                if (count != rs.getInt(2)) {
+                    throw new DatabaseGenerationException("Table \"" + t.getTableName()
+                            + "\" has gaps in its ids, rows cannot be appended");
+                }
+                existingRows.put(t.getTableName(), count);
+            }
+        }
+        s.close();
+        return existingRows;
+    }
+
+    /**
+     * Seed the tables were generated with, read from their comments. Rows appended with another seed would repeat
+     * values of unique columns, so a given seed must match the stored one. A seed must be given for tables created
+     * before seeds were stored.
+     */
+    private static long getStoredSeed(Connection connection, String databaseName, SqlTable[] tables, Long givenSeed) throws
+            SQLException,
+            DatabaseGenerationException
+    {
+        Map<String, String> comments = new HashMap<>();
+        try (PreparedStatement ps = connection.prepareStatement("SELECT TABLE_NAME, TABLE_COMMENT FROM "
+                + "INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = ?")) {
+            ps.setString(1, databaseName);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    comments.put(rs.getString(1).toLowerCase(), rs.getString(2));
+                }
+            }
+        }
+        Long storedSeed = null;
+        for (SqlTable t : tables) {
+            String comment = comments.get(t.getTableName().toLowerCase());
+            if (comment == null || !comment.startsWith(SEED_COMMENT_PREFIX)) {
+                continue;
+            }
+            long seed;
+            try {
+                seed = Long.parseLong(comment.substring(SEED_COMMENT_PREFIX.length()).trim());
+            } catch (NumberFormatException e) {
+                throw new DatabaseGenerationException("Table \"" + t.getTableName() + "\" has a damaged seed comment");
+            }
+            if (storedSeed != null && storedSeed != seed) {
+                throw new DatabaseGenerationException("Tables were generated with different seeds "
+                        + storedSeed + " and " + seed);
+            }
+            storedSeed = seed;
+        }
+        if (storedSeed == null) {
+            if (givenSeed == null) {
+                throw new DatabaseGenerationException("Database \"" + databaseName + "\" has no stored seed, "
+                        + "give the seed it was generated with");
+            }
+            return givenSeed;
+        }
+        if (givenSeed != null && !givenSeed.equals(storedSeed)) {
+            throw new DatabaseGenerationException("Database \"" + databaseName + "\" was generated with seed "
+                    + storedSeed + ", rows cannot be appended with seed " + givenSeed);
+        }
+        System.out.println("Appending with stored seed " + storedSeed);
+        return storedSeed;
+    }
+
+    /**
+     * Appends rows to the tables of the database the connection and the data source use, growing them by the given
+     * percentage or up to their declared records count if it is null.
+     */
+    static boolean appendRows(DataSource ds, Connection conn, SqlDatabase database, GenerationOptions options,
+                              Double growthPercentage, Long givenSeed) throws
+            SQLException,
+            DatabaseGenerationException
+    {
+        SqlTable[] tables = database.getGenerationOrder();
+        long seed = getStoredSeed(conn, database.getDatabaseName(), tables, givenSeed);
+        Map<String, Integer> existingRows = getExistingRows(conn, tables);
+        Map<String, Integer> rowCounts = new ConcurrentHashMap<>();
+        for (SqlTable t : tables) {
+            int existingCount = existingRows.get(t.getTableName());
+            long target = growthPercentage == null
+                    ? getRecordsCount(t, seed, options.getScale())
+                    : Math.round(existingCount * (1 + growthPercentage / 100.0));
+            rowCounts.put(t.getTableName(), (int)Math.max(existingCount, Math.min(target, Integer.MAX_VALUE)));
+            System.out.println("Table \"" + t.getTableName() + "\": " + existingCount + " -> "
+                    + rowCounts.get(t.getTableName()) + " rows");
+        }
+        checkUniqueColumns(tables, rowCounts);
+        System.out.println("Database appending has started");
+        ExecutorService executor = Executors.newFixedThreadPool(options.getWorkers());
+        Checkpoint checkpoint = Checkpoint.disabled(seed, options.getChunkSize());
+        GenerationMetrics metrics = createMetrics(database, existingRows, rowCounts, checkpoint);
+        metrics.start(options.getProgressInterval());
+        boolean generated = false;
+        try (ConnectionPool pool = new ConnectionPool(ds, options.getWorkers(), getSessionQueries(options))) {
+            generated = fillTables(pool, executor, database, existingRows, rowCounts, options, seed, checkpoint,
+                    metrics, Shard.WHOLE)
+                    && linkTables(pool, executor, database, existingRows, rowCounts, options, seed, checkpoint,
+                    metrics, Shard.WHOLE);
+        } finally {
+            executor.shutdownNow();
+            finishMetrics(metrics, options, generated);
+        }
+        return generated;
+    }
+
+    private static boolean appendDatabase(String connectionPropertiesFilePath, String tableDeclarationFilePath,
+                                          Double growthPercentage, Long givenSeed) throws
+            DatabaseGenerationException,
+            IOException,
+            SAXException,
+            XMLParseException,
+            XMLSignatureException,
+            SQLException
+    {
+        Properties props = loadProperties(connectionPropertiesFilePath);
+        GenerationOptions options = GenerationOptions.fromProperties(props);
+        SqlDatabase database = parseDeclaration(tableDeclarationFilePath, options);
+        if (options.getServers().length > 0) {
+            throw new DatabaseGenerationException("Rows cannot be appended to a sharded database");
+        }
+        MysqlDataSource ds = createDataSource(props, options);
+        String databaseName = database.getDatabaseName();
+        boolean generated = false;
+        try (Connection conn = ds.getConnection()) {
+            if (!databaseExists(conn, databaseName)) {
+                throw new DatabaseGenerationException("Database \"" + databaseName + "\" does not exist");
+            }
+            conn.createStatement().executeUpdate("USE " + databaseName);
+            ds.setDatabaseName(databaseName);
+            generated = appendRows(ds, conn, database, options, growthPercentage, givenSeed);
+        } catch (SQLException e) {
+            System.out.println(e.getMessage() + ". Aborting appending, chunks committed so far are kept..");
+            generated = false;
+        }
+        return generated;
+    }
+
+    /**
+     * Prints planned rows, estimated sizes and generation times of tables without connecting to the server. The
+     * scale factor of the run is taken from the properties file unless a scale factor or a target size is given.
+     */
+    public static void planDatabase(String propertiesFilePath, String tableDeclarationFilePath, long seed) throws
+            DatabaseGenerationException,
+            IOException,
+            SAXException,
+            XMLParseException,
+            XMLSignatureException,
+            SQLException
+    {
+        planDatabase(propertiesFilePath, tableDeclarationFilePath, null, null, seed);
+    }
+
+    public static void planDatabase(String propertiesFilePath, String tableDeclarationFilePath, double scale,
+                                    long seed) throws
+            DatabaseGenerationException,
+            IOException,
+            SAXException,
+            XMLParseException,
+            XMLSignatureException,
+            SQLException
+    {
+        planDatabase(propertiesFilePath, tableDeclarationFilePath, scale, null, seed);
+    }
+
+    public static void planDatabaseToSize(String propertiesFilePath, String tableDeclarationFilePath,
+                                          long targetBytes, long seed) throws
+            DatabaseGenerationException,
+            IOException,
+            SAXException,
+            XMLParseException,
+            XMLSignatureException,
+            SQLException
+    {
+        planDatabase(propertiesFilePath, tableDeclarationFilePath, null, targetBytes, seed);
+    }
+
+    private static void checkUniqueColumns(SqlTable[] tables, Map<String, Integer> rowCounts) throws
+            DatabaseGenerationException
+    {
+        for (SqlTable t : tables) {
+            UniqueValues.check(t, rowCounts.get(t.getTableName()));
+        }
+    }
+
+    static Map<String, Integer> getRowCounts(SqlTable[] tables, long seed, double scale)
+    {
+        Map<String, Integer> rowCounts = new HashMap<>();
+        for (SqlTable t : tables) {
+            rowCounts.put(t.getTableName(), getRecordsCount(t, seed, scale));
+        }
+        return rowCounts;
+    }
+
+    private static void planDatabase(String propertiesFilePath, String tableDeclarationFilePath, Double scale,
+                                     Long targetBytes, long seed) throws
+            DatabaseGenerationException,
+            IOException,
+            SAXException,
+            XMLParseException,
+            XMLSignatureException,
+            SQLException
+    {
+        GenerationOptions options = GenerationOptions.fromProperties(loadProperties(propertiesFilePath));
+        SqlDatabase database = parseDeclaration(tableDeclarationFilePath, options);
+        SqlTable[] tables = database.getGenerationOrder();
+        double scaleFactor = scale == null ? options.getScale() : scale;
+        if (targetBytes != null) {
+            double bytes = GenerationPlanner.getTotalBytes(tables, getRowCounts(tables, seed, 1));
+            scaleFactor = targetBytes / bytes;
+        }
+        Map<String, Integer> rowCounts = getRowCounts(tables, seed, scaleFactor);
+        checkUniqueColumns(tables, rowCounts);
+        StringBuilder order = new StringBuilder();
+        for (SqlTable t : tables) {
+            order.append(order.length() == 0 ? "" : " -> ").append(t.getTableName());
+        }
+        System.out.println("Generation order: " + order);
+        System.out.println(String.format(Locale.ROOT, "Scale factor: %.4f", scaleFactor));
+        System.out.println(String.format(Locale.ROOT, "%-32s %14s %12s %12s %10s", "Table", "Rows", "Size", "Rows/s",
+                "Time"));
+        long totalRows = 0;
+        double totalBytes = 0;
+        double totalSeconds = 0;
+        for (SqlTable t : tables) {
+            String tableName = t.getTableName();
+            int rowCount = rowCounts.get(tableName);
+            double bytes = GenerationPlanner.getRowBytes(t) * rowCount;
+            TablePlan plan = compileTable(t, t.getForeignKeys(), rowCounts, seed);
+            double rowsPerSecond = GenerationPlanner.calibrate(plan, rowCount, Randoms.forRows(seed, tableName));
+            double seconds = rowsPerSecond == 0 ? 0 : rowCount / rowsPerSecond;
+            System.out.println(String.format(Locale.ROOT, "%-32s %14d %12s %12.0f %10s", tableName, rowCount,
+                    GenerationPlanner.formatBytes(bytes), rowsPerSecond, GenerationPlanner.formatSeconds(seconds)));
+            totalRows += rowCount;
+            totalBytes += bytes;
+            totalSeconds += seconds;
+        }
+        System.out.println(String.format(Locale.ROOT, "%-32s %14d %12s", "Total", totalRows,
+                GenerationPlanner.formatBytes(totalBytes)));
+        System.out.println("Estimated generation time with " + options.getWorkers() + " workers: "
+                + GenerationPlanner.formatSeconds(totalSeconds / options.getWorkers())
+                + " (rows generation and encoding only, server load time is not included)");
     }
 }
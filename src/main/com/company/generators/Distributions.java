@@ -0,0 +1,153 @@
+package main.com.company.generators;
+
+import main.com.company.models.Distribution;
+import main.com.company.models.SqlNumericColumn;
+
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Constant-time samplers of declared value distributions. Skewed distributions over many values are sampled with
+ * an alias table of buckets and a closed form inverse CDF inside the bucket, so tables stay small for any parent
+ * table size.
+ */
+final class Distributions {
+    interface IntSampler {
+        int next(RowRandom random);
+    }
+
+    interface DoubleSampler {
+        double next(RowRandom random);
+    }
+
+    private static final int ZIPF_HEAD_SIZE = 1 << 14;
+
+    private static final double ZIPF_TAIL_BUCKET_RATIO = 1.02;
+
+    private static final Hashtable<String, BiFunction<Distribution, Integer, IntSampler>> REFERENCE_DISTRIBUTIONS = new Hashtable<String, BiFunction<Distribution, Integer, IntSampler>>() {
+        {
+            put("uniform", (d, n) -> (random) -> random.nextInt(n) + 1);
+            put("zipf", (d, n) -> zipf(n, d.getExponent()));
+            put("exponential", (d, n) -> {
+                DoubleSampler sampler = truncatedExponential(n * d.getMean() / 100.0, n);
+                return (random) -> Math.min((int)sampler.next(random), n - 1) + 1;
+            });
+            put("weighted", (d, n) -> {
+                DoubleSampler sampler = weighted(d.getWeights(), 0, n);
+                return (random) -> Math.min((int)sampler.next(random), n - 1) + 1;
+            });
+        }
+    };
+
+    private static final Hashtable<String, Function<SqlNumericColumn, DoubleSampler>> COLUMN_DISTRIBUTIONS = new Hashtable<String, Function<SqlNumericColumn, DoubleSampler>>() {
+        {
+            put("gaussian", (c) -> {
+                double mean = c.getMean();
+                double deviation = mean * c.getDispersionPercentage() / 100.0;
+                return (random) -> Randoms.nextGaussian(random) * deviation + mean;
+            });
+            put("exponential", (c) -> {
+                double mean = c.getMean();
+                return (random) -> -mean * Math.log(1 - random.nextDouble());
+            });
+            put("zipf", (c) -> {
+                IntSampler sampler = zipf(c.getDistribution().getMax(), c.getDistribution().getExponent());
+                return (random) -> sampler.next(random);
+            });
+            put("weighted", (c) -> {
+                double deviation = Math.abs(c.getMean() * c.getDispersionPercentage() / 100.0);
+                return weighted(c.getDistribution().getWeights(), c.getMean() - deviation, c.getMean() + deviation);
+            });
+        }
+    };
+
+    private Distributions()
+    {
+    }
+
+    /**
+     * Sampler of foreign keys in [1, parentRowCount], uniform unless the reference declares a distribution.
+     */
+    static IntSampler forReference(Distribution distribution, int parentRowCount)
+    {
+        String name = distribution == null ? "uniform" : distribution.getName();
+        return REFERENCE_DISTRIBUTIONS.get(name).apply(distribution, parentRowCount);
+    }
+
+    /**
+     * Sampler of column values, gaussian unless the column declares a distribution.
+     */
+    static DoubleSampler forColumn(SqlNumericColumn column)
+    {
+        String name = column.getDistribution() == null ? "gaussian" : column.getDistribution().getName();
+        return COLUMN_DISTRIBUTIONS.get(name).apply(column);
+    }
+
+    private static DoubleSampler truncatedExponential(double mean, double max)
+    {
+        double maxProbability = 1 - Math.exp(-max / mean);
+        return (random) -> -mean * Math.log(1 - random.nextDouble() * maxProbability);
+    }
+
+    private static DoubleSampler weighted(double[] weights, double min, double max)
+    {
+        AliasTable buckets = new AliasTable(weights);
+        double width = (max - min) / weights.length;
+        return (random) -> min + (buckets.next(random) + random.nextDouble()) * width;
+    }
+
+    /**
+     * Zipf distribution over ranks [1, n]. The first ranks are picked exactly from the alias table, the tail is
+     * split into geometrically growing buckets weighted by the integral of x^-exponent, a rank inside a bucket is
+     * picked by inverting that integral.
+     */
+    private static IntSampler zipf(int n, double exponent)
+    {
+        int head = Math.min(n, ZIPF_HEAD_SIZE);
+        List<long[]> tail = new ArrayList<>();
+        for (long first = head + 1; first <= n; ) {
+            long next = Math.min((long)n + 1, Math.max(first + 1, (long)(first * ZIPF_TAIL_BUCKET_RATIO)));
+            tail.add(new long[]{first, next});
+            first = next;
+        }
+        double t = 1 - exponent;
+        boolean logarithmic = Math.abs(t) < 1e-9;
+        double[] weights = new double[head + tail.size()];
+        double[] lows = new double[tail.size()];
+        double[] spans = new double[tail.size()];
+        long[] firsts = new long[tail.size()];
+        long[] lasts = new long[tail.size()];
+        for (int k = 1; k <= head; ++k) {
+            weights[k - 1] = Math.pow(k, -exponent);
+        }
+        for (int j = 0; j < tail.size(); ++j) {
+            double lo = tail.get(j)[0] - 0.5;
+            double hi = tail.get(j)[1] - 0.5;
+            firsts[j] = tail.get(j)[0];
+            lasts[j] = tail.get(j)[1] - 1;
+            if (logarithmic) {
+                lows[j] = Math.log(lo);
+                spans[j] = Math.log(hi) - lows[j];
+                weights[head + j] = spans[j];
+            } else {
+                lows[j] = Math.pow(lo, t);
+                spans[j] = Math.pow(hi, t) - lows[j];
+                weights[head + j] = spans[j] / t;
+            }
+        }
+        AliasTable table = new AliasTable(weights);
+        return (random) -> {
+            int i = table.next(random);
+            if (i < head) {
+                return i + 1;
+            }
+            int j = i - head;
+            double y = lows[j] + random.nextDouble() * spans[j];
+            double x = logarithmic ? Math.exp(y) : Math.pow(y, 1 / t);
+            return (int)Math.max(firsts[j], Math.min(lasts[j], (long)(x + 0.5)));
+        };
+    }
+}
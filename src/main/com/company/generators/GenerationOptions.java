@@ -0,0 +1,260 @@
+package main.com.company.generators;
+
+import java.io.File;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+/**
+ * Generation settings read from the connection properties file.
+ */
+class GenerationOptions {
+    enum LoadMode {
+        INSERT,
+        INFILE,
+        STREAM
+    }
+
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private static final int DEFAULT_CHUNK_SIZE = 100000;
+
+    private static final int DEFAULT_LOAD_BUFFER_SIZE = 1 << 20;
+
+    private static final int DEFAULT_PROGRESS_INTERVAL = 10;
+
+    private static final Pattern SERVER_ADDRESS = Pattern.compile("[^:,\\s]+(:\\d{1,5})?");
+
+    private int batchSize;
+
+    private int linkChunkSize;
+
+    private int workers;
+
+    private int chunkSize;
+
+    private LoadMode loadMode;
+
+    private File spillDirectory;
+
+    private int loadBufferSize;
+
+    private boolean compressDump;
+
+    private int progressInterval;
+
+    private boolean checkpoint;
+
+    private boolean fastLoad;
+
+    private double scale;
+
+    private File metricsFile;
+
+    private int pipelineDepth;
+
+    private int generatorThreads;
+
+    private String[] servers;
+
+    private Shard.Method shardBy;
+
+    private File schemaCacheDirectory;
+
+    private static int getInt(Properties props, String key, int defaultValue, int minValue) throws
+            DatabaseGenerationException
+    {
+        String value = props.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        int result;
+        try {
+            result = Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new DatabaseGenerationException("Cannot parse \"" + key + "\" property");
+        }
+        if (result < minValue) {
+            throw new DatabaseGenerationException("\"" + key + "\" property cannot be lesser then " + minValue);
+        }
+        return result;
+    }
+
+    private static double getPositiveDouble(Properties props, String key, double defaultValue) throws
+            DatabaseGenerationException
+    {
+        String value = props.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        double result;
+        try {
+            result = Double.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new DatabaseGenerationException("Cannot parse \"" + key + "\" property");
+        }
+        if (!(result > 0) || Double.isInfinite(result)) {
+            throw new DatabaseGenerationException("\"" + key + "\" property must be a positive number");
+        }
+        return result;
+    }
+
+    private static boolean getBoolean(Properties props, String key, boolean defaultValue) throws
+            DatabaseGenerationException
+    {
+        String value = props.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        value = value.trim();
+        if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+            throw new DatabaseGenerationException("\"" + key + "\" property must be \"true\" or \"false\"");
+        }
+        return Boolean.valueOf(value);
+    }
+
+    static GenerationOptions fromProperties(Properties props) throws
+            DatabaseGenerationException
+    {
+        GenerationOptions options = new GenerationOptions();
+        options.batchSize = getInt(props, "batchSize", DEFAULT_BATCH_SIZE, 1);
+        options.linkChunkSize = getInt(props, "linkChunkSize", 0, 0);
+        options.workers = getInt(props, "workers", 1, 1);
+        options.chunkSize = getInt(props, "chunkSize", DEFAULT_CHUNK_SIZE, 1);
+        options.loadBufferSize = getInt(props, "loadBufferSize", DEFAULT_LOAD_BUFFER_SIZE, 1024);
+        options.compressDump = getBoolean(props, "compressDump", true);
+        options.checkpoint = getBoolean(props, "checkpoint", false);
+        options.fastLoad = getBoolean(props, "fastLoad", false);
+        options.scale = getPositiveDouble(props, "scale", 1);
+        options.progressInterval = getInt(props, "progressInterval", DEFAULT_PROGRESS_INTERVAL, 0);
+        options.pipelineDepth = getInt(props, "pipelineDepth", 0, 0);
+        options.generatorThreads = getInt(props, "generatorThreads", Runtime.getRuntime().availableProcessors(), 1);
+        String metricsFile = props.getProperty("metricsFile");
+        options.metricsFile = metricsFile == null ? null : new File(metricsFile.trim());
+        try {
+            options.loadMode = LoadMode.valueOf(props.getProperty("loadMode", "insert").trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new DatabaseGenerationException("Load mode must be one of \"insert\", \"infile\" or \"stream\"");
+        }
+        options.spillDirectory = new File(props.getProperty("spillDirectory", System.getProperty("java.io.tmpdir")));
+        if (options.loadMode == LoadMode.INFILE && !options.spillDirectory.isDirectory()) {
+            throw new DatabaseGenerationException("Spill directory \"" + options.spillDirectory + "\" does not exist");
+        }
+        String servers = props.getProperty("servers", "").trim();
+        options.servers = servers.isEmpty() ? new String[0] : servers.split("\\s*,\\s*");
+        for (String server : options.servers) {
+            if (!SERVER_ADDRESS.matcher(server).matches()) {
+                throw new DatabaseGenerationException("Cannot parse server address \"" + server + "\"");
+            }
+        }
+        try {
+            options.shardBy = Shard.Method.valueOf(props.getProperty("shardBy", "hash").trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new DatabaseGenerationException("Shard method must be \"range\" or \"hash\"");
+        }
+        String schemaCacheDirectory = props.getProperty("schemaCacheDirectory");
+        options.schemaCacheDirectory = schemaCacheDirectory == null ? null : new File(schemaCacheDirectory.trim());
+        if (options.servers.length > 0 && options.checkpoint) {
+            throw new DatabaseGenerationException("\"checkpoint\" property cannot be used with several servers");
+        }
+        if (options.pipelineDepth > 0 && options.loadMode != LoadMode.INSERT) {
+            throw new DatabaseGenerationException("\"pipelineDepth\" property can be used only with \"insert\" load mode");
+        }
+        return options;
+    }
+
+    public int getBatchSize()
+    {
+        return batchSize;
+    }
+
+    public int getLinkChunkSize()
+    {
+        return linkChunkSize;
+    }
+
+    public int getWorkers()
+    {
+        return workers;
+    }
+
+    public int getChunkSize()
+    {
+        return chunkSize;
+    }
+
+    public LoadMode getLoadMode()
+    {
+        return loadMode;
+    }
+
+    public File getSpillDirectory()
+    {
+        return spillDirectory;
+    }
+
+    public int getLoadBufferSize()
+    {
+        return loadBufferSize;
+    }
+
+    public boolean isCompressDump()
+    {
+        return compressDump;
+    }
+
+    public boolean isCheckpoint()
+    {
+        return checkpoint;
+    }
+
+    public boolean isFastLoad()
+    {
+        return fastLoad;
+    }
+
+    public double getScale()
+    {
+        return scale;
+    }
+
+    public int getProgressInterval()
+    {
+        return progressInterval;
+    }
+
+    public File getMetricsFile()
+    {
+        return metricsFile;
+    }
+
+    public int getPipelineDepth()
+    {
+        return pipelineDepth;
+    }
+
+    public int getGeneratorThreads()
+    {
+        return generatorThreads;
+    }
+
+    /**
+     * Servers of a sharded run, empty unless the "servers" property lists them.
+     */
+    public String[] getServers()
+    {
+        return servers;
+    }
+
+    public Shard.Method getShardBy()
+    {
+        return shardBy;
+    }
+
+    /**
+     * Directory of parsed tables declarations, null unless the "schemaCacheDirectory" property is set.
+     */
+    public File getSchemaCacheDirectory()
+    {
+        return schemaCacheDirectory;
+    }
+}
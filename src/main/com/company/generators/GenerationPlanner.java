@@ -0,0 +1,153 @@
+package main.com.company.generators;
+
+import main.com.company.models.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Hashtable;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Size and time estimates of a generation run. Sizes follow the InnoDB compact row format: fixed size fields of the
+ * declared types, a row header, transaction id and roll pointer per row, an index entry per row for every secondary
+ * and foreign key index, pages filled to 15/16. Times come from generating a sample of every table on this machine,
+ * so they do not include the server side of the load.
+ */
+final class GenerationPlanner {
+    private static final Hashtable<String, Integer> ABSTRACT_TYPES_TO_SIZES = new Hashtable<String, Integer>() {
+        {
+            put("integer", 4);
+            put("double", 8);
+            put("boolean", 1);
+        }
+    };
+
+    private static final int ID_SIZE = 4;
+
+    private static final int ROW_OVERHEAD = 5 + 6 + 7;
+
+    private static final int INDEX_ENTRY_OVERHEAD = 5 + 1;
+
+    private static final double PAGE_FILL_FACTOR = 15.0 / 16.0;
+
+    private static final int CALIBRATION_ROWS = 20000;
+
+    private static final int CALIBRATION_BUFFER_SIZE = 1 << 16;
+
+    private static final String[] BYTE_UNITS = {"B", "KB", "MB", "GB", "TB"};
+
+    private GenerationPlanner()
+    {
+    }
+
+    private static int getColumnSize(SqlColumn column)
+    {
+        if (column instanceof SqlStringColumn) {
+            SqlStringColumn c = (SqlStringColumn)column;
+            return (c.getMinLength() + c.getMaxLength() + 1) / 2 + (c.getMaxLength() * 4 > 255 ? 2 : 1);
+        }
+        return ABSTRACT_TYPES_TO_SIZES.get(column.getColumnType());
+    }
+
+    private static int getColumnSize(SqlTable table, String columnName)
+    {
+        for (SqlColumn c : table.getTableColumns()) {
+            if (c.getColumnName().equalsIgnoreCase(columnName)) {
+                return getColumnSize(c);
+            }
+        }
+        return ID_SIZE;
+    }
+
+    /**
+     * Estimated bytes taken by one row of the table in its clustered index and in all its secondary indexes.
+     */
+    static double getRowBytes(SqlTable table)
+    {
+        Reference[] refs = table.getForeignKeys();
+        int rowSize = ROW_OVERHEAD + ID_SIZE + (refs.length + 7) / 8;
+        int indexesSize = refs.length * (ID_SIZE + ID_SIZE + INDEX_ENTRY_OVERHEAD);
+        for (SqlColumn c : table.getTableColumns()) {
+            rowSize += getColumnSize(c);
+            if (c.isUnique()) {
+                indexesSize += getColumnSize(c) + ID_SIZE + INDEX_ENTRY_OVERHEAD;
+            }
+        }
+        rowSize += refs.length * ID_SIZE;
+        for (SqlIndex i : table.getIndexes()) {
+            indexesSize += ID_SIZE + INDEX_ENTRY_OVERHEAD;
+            for (String columnName : i.getColumnNames()) {
+                indexesSize += getColumnSize(table, columnName);
+            }
+        }
+        return (rowSize + indexesSize) / PAGE_FILL_FACTOR;
+    }
+
+    /**
+     * Generates and encodes a sample of the table rows twice, returns rows per second of the second pass.
+     */
+    static double calibrate(TablePlan plan, int rowCount, RowRandom random) throws
+            IOException
+    {
+        int rows = Math.min(rowCount, CALIBRATION_ROWS);
+        if (rows == 0) {
+            return 0;
+        }
+        WritableByteChannel discard = new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src)
+            {
+                int length = src.remaining();
+                src.position(src.limit());
+                return length;
+            }
+
+            @Override
+            public boolean isOpen()
+            {
+                return true;
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        };
+        long nanos = 0;
+        for (int pass = 0; pass < 2; ++pass) {
+            TsvRows sample = new TsvRows((out, row) -> plan.writeRow(out, row, random), 0, rows,
+                    CALIBRATION_BUFFER_SIZE);
+            long start = System.nanoTime();
+            sample.writeTo(discard);
+            nanos = System.nanoTime() - start;
+        }
+        return rows / (Math.max(nanos, 1) / 1e9);
+    }
+
+    static String formatBytes(double bytes)
+    {
+        int unit = 0;
+        while (bytes >= 1024 && unit < BYTE_UNITS.length - 1) {
+            bytes /= 1024;
+            ++unit;
+        }
+        return String.format(Locale.ROOT, "%.1f %s", bytes, BYTE_UNITS[unit]);
+    }
+
+    static String formatSeconds(double seconds)
+    {
+        long s = Math.round(seconds);
+        return String.format(Locale.ROOT, "%d:%02d:%02d", s / 3600, s / 60 % 60, s % 60);
+    }
+
+    static double getTotalBytes(SqlTable[] tables, Map<String, Integer> rowCounts)
+    {
+        double result = 0;
+        for (SqlTable t : tables) {
+            result += getRowBytes(t) * rowCounts.get(t.getTableName());
+        }
+        return result;
+    }
+}
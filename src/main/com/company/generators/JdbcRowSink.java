@@ -0,0 +1,123 @@
+package main.com.company.generators;
+
+import main.com.company.metrics.TableMetrics;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Sends rows to the server as batches of prepared INSERT statements. Sent rows are not counted as written, the
+ * transaction running the sink counts them once committed.
+ */
+class JdbcRowSink implements RowSink {
+    private final PreparedStatement statement;
+
+    private final int batchSize;
+
+    private final TableMetrics metrics;
+
+    private int batchStart;
+
+    private int batched;
+
+    JdbcRowSink(Connection connection, String insertQuery, int batchSize, int firstRow) throws
+            SQLException
+    {
+        this(connection, insertQuery, batchSize, firstRow, null);
+    }
+
+    JdbcRowSink(Connection connection, String insertQuery, int batchSize, int firstRow, TableMetrics metrics) throws
+            SQLException
+    {
+        statement = connection.prepareStatement(insertQuery);
+        this.batchSize = batchSize;
+        this.metrics = metrics;
+        batchStart = firstRow;
+    }
+
+    static void checkBatchResult(int[] updateCounts) throws
+            SQLException
+    {
+        for (int i = 0; i < updateCounts.length; ++i) {
+            if (updateCounts[i] == 0 || updateCounts[i] == Statement.EXECUTE_FAILED) {
+                throw new SQLException("Cannot insert row #" + (i + 1) + " of the batch");
+            }
+        }
+    }
+
+    @Override
+    public void setInt(int column, int value) throws
+            SQLException
+    {
+        statement.setInt(column + 1, value);
+    }
+
+    @Override
+    public void setDouble(int column, double value) throws
+            SQLException
+    {
+        statement.setDouble(column + 1, value);
+    }
+
+    @Override
+    public void setBoolean(int column, boolean value) throws
+            SQLException
+    {
+        statement.setBoolean(column + 1, value);
+    }
+
+    @Override
+    public void setString(int column, String value) throws
+            SQLException
+    {
+        statement.setString(column + 1, value);
+    }
+
+    @Override
+    public void setAscii(int column, byte[] value, int length) throws
+            SQLException
+    {
+        statement.setString(column + 1, new String(value, 0, length, StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public void endRow() throws
+            SQLException
+    {
+        statement.addBatch();
+        if (++batched == batchSize) {
+            flush();
+        }
+    }
+
+    @Override
+    public void flush() throws
+            SQLException
+    {
+        if (batched == 0) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            checkBatchResult(statement.executeBatch());
+            if (metrics != null) {
+                metrics.statementExecuted(System.nanoTime() - start);
+            }
+        } catch (SQLException e) {
+            throw new SQLException("batch of rows " + (batchStart + 1) + ".." + (batchStart + batched)
+                    + " was not inserted: " + e.getMessage(), e);
+        }
+        batchStart += batched;
+        batched = 0;
+    }
+
+    @Override
+    public void close() throws
+            SQLException
+    {
+        statement.close();
+    }
+}
@@ -0,0 +1,63 @@
+package main.com.company.generators;
+
+/**
+ * Keyed pseudo-random permutation of [0, size). A balanced Feistel network permutes the smallest power of four
+ * covering the range, images falling outside of it are permuted again until they fall inside, which takes less than
+ * four rounds on average. No table is kept, so a permutation of any size takes constant memory.
+ */
+final class Permutation {
+    private static final int ROUNDS = 4;
+
+    private static final long ROUND_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final long size;
+
+    private final int halfBits;
+
+    private final long halfMask;
+
+    private final long[] roundKeys = new long[ROUNDS];
+
+    Permutation(long size, long key)
+    {
+        if (size < 1) {
+            throw new IllegalArgumentException("Permutation size must be positive");
+        }
+        this.size = size;
+        int bits = Math.max(2, Long.SIZE - Long.numberOfLeadingZeros(size - 1));
+        halfBits = (bits + 1) / 2;
+        halfMask = (1L << halfBits) - 1;
+        for (int i = 0; i < ROUNDS; ++i) {
+            roundKeys[i] = Randoms.mix(key + (i + 1) * ROUND_GAMMA);
+        }
+    }
+
+    long size()
+    {
+        return size;
+    }
+
+    private long encrypt(long x)
+    {
+        long left = x >>> halfBits;
+        long right = x & halfMask;
+        for (long k : roundKeys) {
+            long next = left ^ (Randoms.mix(right ^ k) & halfMask);
+            left = right;
+            right = next;
+        }
+        return (left << halfBits) | right;
+    }
+
+    /**
+     * Image of an index in [0, size).
+     */
+    long get(long index)
+    {
+        long x = encrypt(index);
+        while (x >= size) {
+            x = encrypt(x);
+        }
+        return x;
+    }
+}
@@ -0,0 +1,74 @@
+package main.com.company.generators;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random streams derived from the master seed of a generation run. A stream depends only on the seed and a table or
+ * column name, and rows are addressed inside it by index, so generated data does not depend on the workers count,
+ * chunk size nor on the order chunks are filled in.
+ */
+final class Randoms {
+    private static final int RECORDS_COUNT_STREAM = -1;
+
+    private static final int ROWS_STREAM = -2;
+
+    private static final int PERMUTATION_STREAM = -3;
+
+    private Randoms()
+    {
+    }
+
+    static long mix(long z)
+    {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Key of a stream, every character of the name is mixed into 64 bits, so names with the same String hash code
+     * like "Aa" and "BB" get distinct streams.
+     */
+    private static long getStreamKey(long seed, String name, int stream)
+    {
+        long key = mix(seed);
+        for (int i = 0; i < name.length(); ++i) {
+            key = mix(key + name.charAt(i));
+        }
+        return mix(key + stream);
+    }
+
+    static SplittableRandom forRecordsCount(long seed, String tableName)
+    {
+        return new SplittableRandom(getStreamKey(seed, tableName, RECORDS_COUNT_STREAM));
+    }
+
+    /**
+     * Row addressable stream of a table, or of a column when named "table.column".
+     */
+    static RowRandom forRows(long seed, String name)
+    {
+        return new RowRandom(getStreamKey(seed, name, ROWS_STREAM));
+    }
+
+    /**
+     * Permutation of [0, size) of a unique column named "table.column".
+     */
+    static Permutation forUnique(long seed, String name, long size)
+    {
+        return new Permutation(size, getStreamKey(seed, name, PERMUTATION_STREAM));
+    }
+
+    static double nextGaussian(RowRandom random)
+    {
+        double x;
+        double y;
+        double s;
+        do {
+            x = 2 * random.nextDouble() - 1;
+            y = 2 * random.nextDouble() - 1;
+            s = x * x + y * y;
+        } while (s >= 1 || s == 0);
+        return x * Math.sqrt(-2 * Math.log(s) / s);
+    }
+}
@@ -0,0 +1,188 @@
+package main.com.company.generators;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Reusable batch of generated rows kept column by column. Numeric values are stored unboxed, so refilling a batch
+ * allocates nothing but the strings of its rows.
+ */
+final class RowBatch implements RowSink {
+    static final byte INT = 1;
+
+    static final byte DOUBLE = 2;
+
+    static final byte BOOLEAN = 3;
+
+    static final byte STRING = 4;
+
+    private final int capacity;
+
+    private final byte[] types;
+
+    private final long[][] numbers;
+
+    private final String[][] strings;
+
+    private int firstRow;
+
+    private int size;
+
+    RowBatch(int columnCount, int capacity)
+    {
+        this.capacity = capacity;
+        types = new byte[columnCount];
+        numbers = new long[columnCount][];
+        strings = new String[columnCount][];
+    }
+
+    void clear(int firstRow)
+    {
+        this.firstRow = firstRow;
+        size = 0;
+    }
+
+    int getFirstRow()
+    {
+        return firstRow;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    private long[] numbers(int column, byte type)
+    {
+        types[column] = type;
+        if (numbers[column] == null) {
+            numbers[column] = new long[capacity];
+        }
+        return numbers[column];
+    }
+
+    private String[] strings(int column)
+    {
+        types[column] = STRING;
+        if (strings[column] == null) {
+            strings[column] = new String[capacity];
+        }
+        return strings[column];
+    }
+
+    @Override
+    public void setInt(int column, int value)
+    {
+        numbers(column, INT)[size] = value;
+    }
+
+    @Override
+    public void setDouble(int column, double value)
+    {
+        numbers(column, DOUBLE)[size] = Double.doubleToRawLongBits(value);
+    }
+
+    @Override
+    public void setBoolean(int column, boolean value)
+    {
+        numbers(column, BOOLEAN)[size] = value ? 1 : 0;
+    }
+
+    @Override
+    public void setString(int column, String value)
+    {
+        strings(column)[size] = value;
+    }
+
+    @Override
+    public void setAscii(int column, byte[] value, int length)
+    {
+        strings(column)[size] = new String(value, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public void endRow()
+    {
+        ++size;
+    }
+
+    @Override
+    public void flush()
+    {
+    }
+
+    @Override
+    public void close()
+    {
+    }
+
+    /**
+     * Binds every row of the batch to the statement and adds it to the statement's batch.
+     */
+    void addTo(PreparedStatement statement) throws
+            SQLException
+    {
+        for (int row = 0; row < size; ++row) {
+            for (int column = 0; column < types.length; ++column) {
+                switch (types[column]) {
+                    case INT:
+                        statement.setInt(column + 1, (int)numbers[column][row]);
+                        break;
+                    case DOUBLE:
+                        statement.setDouble(column + 1, Double.longBitsToDouble(numbers[column][row]));
+                        break;
+                    case BOOLEAN:
+                        statement.setBoolean(column + 1, numbers[column][row] != 0);
+                        break;
+                    default:
+                        statement.setString(column + 1, strings[column][row]);
+                }
+            }
+            statement.addBatch();
+        }
+    }
+
+    /**
+     * Writes values of a column for every row of the batch, prefixed by their length in bytes: ints and doubles
+     * in four and eight bytes, booleans in one byte, strings as UTF-8 prefixed by an unsigned short length.
+     */
+    void writeColumn(int column, DataOutput out) throws
+            IOException
+    {
+        switch (types[column]) {
+            case INT:
+                out.writeInt(size * Integer.BYTES);
+                for (int row = 0; row < size; ++row) {
+                    out.writeInt((int)numbers[column][row]);
+                }
+                break;
+            case DOUBLE:
+                out.writeInt(size * Double.BYTES);
+                for (int row = 0; row < size; ++row) {
+                    out.writeLong(numbers[column][row]);
+                }
+                break;
+            case BOOLEAN:
+                out.writeInt(size);
+                for (int row = 0; row < size; ++row) {
+                    out.writeByte((int)numbers[column][row]);
+                }
+                break;
+            default:
+                byte[][] values = new byte[size][];
+                int length = 0;
+                for (int row = 0; row < size; ++row) {
+                    values[row] = strings[column][row].getBytes(StandardCharsets.UTF_8);
+                    length += Short.BYTES + values[row].length;
+                }
+                out.writeInt(length);
+                for (byte[] value : values) {
+                    out.writeShort(value.length);
+                    out.write(value);
+                }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package main.com.company.generators;
+
+import main.com.company.metrics.TableMetrics;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Insert of a range of rows split between two threads: a generator task fills batches of rows while the calling
+ * thread sends the previous ones to the server. Batches are handed over through a bounded queue and returned to a
+ * fixed set of free batches once sent, so a generator running ahead of the server blocks instead of buffering rows.
+ * Time each side spends waiting for the other is recorded in the table metrics.
+ */
+final class RowPipeline {
+    private static final RowBatch END = new RowBatch(0, 0);
+
+    private final BlockingQueue<RowBatch> free;
+
+    private final BlockingQueue<RowBatch> filled;
+
+    private final TableMetrics metrics;
+
+    private RowPipeline(int columnCount, int batchSize, int depth, TableMetrics metrics)
+    {
+        free = new ArrayBlockingQueue<>(depth);
+        filled = new ArrayBlockingQueue<>(depth + 1);
+        for (int i = 0; i < depth; ++i) {
+            free.add(new RowBatch(columnCount, batchSize));
+        }
+        this.metrics = metrics;
+    }
+
+    private Void generate(TablePlan plan, int firstRow, int lastRow, int batchSize, RowRandom random) throws
+            IOException,
+            SQLException,
+            InterruptedException
+    {
+        try {
+            for (int first = firstRow; first < lastRow; first += batchSize) {
+                int last = Math.min(first + batchSize, lastRow);
+                long start = System.nanoTime();
+                RowBatch batch = free.take();
+                long taken = System.nanoTime();
+                metrics.generatorWaited(taken - start);
+                batch.clear(first);
+                for (int row = first; row < last; ++row) {
+                    plan.writeRow(batch, plan.getRow(row), random);
+                }
+                metrics.generated(System.nanoTime() - taken);
+                filled.add(batch);
+            }
+        } finally {
+            filled.add(END);
+        }
+        return null;
+    }
+
+    private void write(Connection connection, String insertQuery) throws
+            SQLException,
+            InterruptedException
+    {
+        try (PreparedStatement statement = connection.prepareStatement(insertQuery)) {
+            while (true) {
+                long start = System.nanoTime();
+                RowBatch batch = filled.take();
+                metrics.writerWaited(System.nanoTime() - start);
+                if (batch == END) {
+                    return;
+                }
+                try {
+                    batch.addTo(statement);
+                    start = System.nanoTime();
+                    JdbcRowSink.checkBatchResult(statement.executeBatch());
+                    metrics.statementExecuted(System.nanoTime() - start);
+                } catch (SQLException e) {
+                    throw new SQLException("batch of rows " + (batch.getFirstRow() + 1) + ".."
+                            + (batch.getFirstRow() + batch.size()) + " was not inserted: " + e.getMessage(), e);
+                }
+                free.add(batch);
+            }
+        }
+    }
+
+    /**
+     * Inserts rows [firstRow, lastRow) of the plan, generating them on one of the given generator threads. At most
+     * {@code depth} batches of {@code batchSize} rows exist at a time.
+     */
+    static void insert(Connection connection, String insertQuery, TablePlan plan, int firstRow, int lastRow,
+                       int batchSize, int depth, RowRandom random, ExecutorService generators,
+                       TableMetrics metrics) throws
+            IOException,
+            SQLException
+    {
+        RowPipeline pipeline = new RowPipeline(plan.getColumnCount(), batchSize, depth, metrics);
+        Future<Void> generator = generators.submit(() -> pipeline.generate(plan, firstRow, lastRow, batchSize, random));
+        try {
+            pipeline.write(connection, insertQuery);
+            generator.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("rows " + (firstRow + 1) + ".." + lastRow + " were not inserted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            } else if (cause instanceof SQLException) {
+                throw (SQLException)cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            generator.cancel(true);
+        }
+    }
+}
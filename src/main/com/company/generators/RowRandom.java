@@ -0,0 +1,63 @@
+package main.com.company.generators;
+
+/**
+ * Counter-based random generator: values of a row column are a pure function of the stream key, row index and
+ * column index, so any row can be generated without generating the rows before it. After a seek, values are
+ * produced like SplittableRandom does, by mixing an incremented state.
+ */
+final class RowRandom {
+    private static final long GAMMA = 0x9e3779b97f4a7c15L;
+
+    private static final long ROW_GAMMA = 0xd1b54a32d192ed03L;
+
+    private static final long COLUMN_GAMMA = 0x8cb92ba72f3d8dd7L;
+
+    private final long key;
+
+    private long state;
+
+    private long row;
+
+    RowRandom(long key)
+    {
+        this.key = key;
+        state = key;
+    }
+
+    void seek(long row, int column)
+    {
+        this.row = row;
+        state = key + row * ROW_GAMMA + column * COLUMN_GAMMA;
+    }
+
+    /**
+     * Row index of the last seek.
+     */
+    long getRow()
+    {
+        return row;
+    }
+
+    long nextLong()
+    {
+        return Randoms.mix(state += GAMMA);
+    }
+
+    /**
+     * Returns a value in [0, bound) by multiplying the high 32 random bits, the bias is below bound / 2^32.
+     */
+    int nextInt(int bound)
+    {
+        return (int)(((nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    double nextDouble()
+    {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    boolean nextBoolean()
+    {
+        return nextLong() < 0;
+    }
+}
@@ -0,0 +1,34 @@
+package main.com.company.generators;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * Destination of generated rows. Values of a row are set by zero-based column indexes, the row is then completed
+ * by {@link #endRow()}.
+ */
+interface RowSink extends AutoCloseable {
+    void setInt(int column, int value) throws IOException, SQLException;
+
+    void setDouble(int column, double value) throws IOException, SQLException;
+
+    void setBoolean(int column, boolean value) throws IOException, SQLException;
+
+    void setString(int column, String value) throws IOException, SQLException;
+
+    /**
+     * Sets a string value given as first {@code length} ASCII bytes of a buffer. The buffer may be reused as soon
+     * as the method returns.
+     */
+    void setAscii(int column, byte[] value, int length) throws IOException, SQLException;
+
+    void endRow() throws IOException, SQLException;
+
+    /**
+     * Writes out rows which are still buffered by the sink.
+     */
+    void flush() throws IOException, SQLException;
+
+    @Override
+    void close() throws IOException, SQLException;
+}
@@ -0,0 +1,135 @@
+package main.com.company.generators;
+
+import main.com.company.models.Reference;
+import main.com.company.models.SqlTable;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rows stored by one server of a sharded run. Rows of sharded tables are spread by id, either in contiguous ranges
+ * or by id modulo the shards count, rows of global tables are stored by every shard. A row keeps the values it has
+ * in an unsharded run, except foreign keys to sharded tables which are moved to a parent row of the same shard, so
+ * every shard is consistent on its own.
+ */
+final class Shard {
+    enum Method {
+        RANGE,
+        HASH
+    }
+
+    static final Shard WHOLE = new Shard(Method.RANGE, 0, 1, new HashSet<>());
+
+    private final Method method;
+
+    private final int index;
+
+    private final int count;
+
+    private final Set<String> globalTableNames;
+
+    private Shard(Method method, int index, int count, Set<String> globalTableNames)
+    {
+        this.method = method;
+        this.index = index;
+        this.count = count;
+        this.globalTableNames = globalTableNames;
+    }
+
+    /**
+     * Shards of a run over the given number of servers. Fails if a shard would have no parent rows for foreign keys
+     * of its rows.
+     */
+    static Shard[] split(SqlTable[] tables, Map<String, Integer> rowCounts, Method method, int count) throws
+            DatabaseGenerationException
+    {
+        Set<String> globalTableNames = new HashSet<>();
+        for (SqlTable t : tables) {
+            if (t.isGlobal()) {
+                globalTableNames.add(t.getTableName());
+            }
+        }
+        for (SqlTable t : tables) {
+            for (Reference r : t.getForeignKeys()) {
+                if (!globalTableNames.contains(r.getTableName()) && rowCounts.get(r.getTableName()) < count) {
+                    throw new DatabaseGenerationException("Table \"" + r.getTableName() + "\" has less rows than "
+                            + count + " shards, declare it global");
+                }
+            }
+        }
+        Shard[] shards = new Shard[count];
+        for (int i = 0; i < count; ++i) {
+            shards[i] = new Shard(method, i, count, globalTableNames);
+        }
+        return shards;
+    }
+
+    int getIndex()
+    {
+        return index;
+    }
+
+    private boolean isSharded(String tableName)
+    {
+        return count > 1 && !globalTableNames.contains(tableName);
+    }
+
+    /**
+     * Rows of a table of the given total rows count stored by this shard.
+     */
+    int getRowCount(String tableName, int rowCount)
+    {
+        if (!isSharded(tableName)) {
+            return rowCount;
+        }
+        if (method == Method.RANGE) {
+            return (int)((long)rowCount * (index + 1) / count - (long)rowCount * index / count);
+        }
+        return rowCount > index ? (rowCount - index - 1) / count + 1 : 0;
+    }
+
+    /**
+     * Row index of the first row of a table stored by this shard, see {@link #getRowStride}.
+     */
+    int getRowOffset(String tableName, int rowCount)
+    {
+        if (!isSharded(tableName)) {
+            return 0;
+        }
+        return method == Method.RANGE ? (int)((long)rowCount * index / count) : index;
+    }
+
+    /**
+     * Distance between row indexes of consecutive rows of a table stored by this shard.
+     */
+    int getRowStride(String tableName)
+    {
+        return isSharded(tableName) && method == Method.HASH ? count : 1;
+    }
+
+    /**
+     * Whether foreign keys to the table must be moved by {@link #getParentId}.
+     */
+    boolean isMovingReferences(String parentTableName)
+    {
+        return isSharded(parentTableName);
+    }
+
+    /**
+     * Id of a parent row stored by this shard for an id of the whole parent table: the id is moved into the range of
+     * the shard, or to the nearest id of the shard modulo the shards count.
+     */
+    int getParentId(String parentTableName, int parentRowCount, int id)
+    {
+        if (!isSharded(parentTableName)) {
+            return id;
+        }
+        if (method == Method.RANGE) {
+            int first = getRowOffset(parentTableName, parentRowCount);
+            return first + (id - 1) % getRowCount(parentTableName, parentRowCount) + 1;
+        }
+        int row = id - 1 - (id - 1) % count + index;
+        return (row < parentRowCount ? row : row - count) + 1;
+    }
+}
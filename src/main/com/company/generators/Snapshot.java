@@ -0,0 +1,341 @@
+package main.com.company.generators;
+
+import main.com.company.metrics.GenerationMetrics;
+import main.com.company.models.SqlColumn;
+import main.com.company.models.SqlTable;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Binary snapshot of a generated database: the tables declaration it was generated from, the seed, and the rows of
+ * every table stored column by column in groups of rows. Ids are not stored, they follow from the row index.
+ * A replayed group is memory mapped and its values are read in place, so loading the same dataset into many
+ * databases costs no generation.
+ * <p>
+ * Layout, big-endian: magic, seed, declaration length and bytes, tables count, then for every table its name length
+ * and bytes, rows count, columns count, column types and groups count, every group being its first row, rows count,
+ * length in bytes and the columns written by {@link RowBatch#writeColumn}.
+ */
+final class Snapshot implements AutoCloseable {
+    private static final long MAGIC = 0x44474e534e415031L;
+
+    private static final int HEADER_SIZE = Long.BYTES + Long.BYTES + Integer.BYTES;
+
+    private static final int GROUP_HEADER_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES;
+
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+    private static final Hashtable<String, Byte> ABSTRACT_TYPES_TO_SNAPSHOT_TYPES = new Hashtable<String, Byte>() {
+        {
+            put("integer", RowBatch.INT);
+            put("double", RowBatch.DOUBLE);
+            put("boolean", RowBatch.BOOLEAN);
+            put("string", RowBatch.STRING);
+        }
+    };
+
+    static final class Group {
+        private final String tableName;
+
+        private final int firstRow;
+
+        private final int rowCount;
+
+        private final long position;
+
+        private final long length;
+
+        private Group(String tableName, int firstRow, int rowCount, long position, long length)
+        {
+            this.tableName = tableName;
+            this.firstRow = firstRow;
+            this.rowCount = rowCount;
+            this.position = position;
+            this.length = length;
+        }
+
+        String getTableName()
+        {
+            return tableName;
+        }
+
+        int getFirstRow()
+        {
+            return firstRow;
+        }
+
+        int getRowCount()
+        {
+            return rowCount;
+        }
+    }
+
+    private final FileChannel channel;
+
+    private final byte[] declaration;
+
+    private final long seed;
+
+    private final Map<String, Integer> rowCounts = new LinkedHashMap<>();
+
+    private final Map<String, byte[]> columnTypes = new HashMap<>();
+
+    private final List<Group> groups = new ArrayList<>();
+
+    private Snapshot(FileChannel channel, byte[] declaration, long seed)
+    {
+        this.channel = channel;
+        this.declaration = declaration;
+        this.seed = seed;
+    }
+
+    private static byte[] getColumnTypes(SqlTable table)
+    {
+        SqlColumn[] columns = table.getTableColumns();
+        byte[] types = new byte[columns.length + table.getForeignKeys().length];
+        Arrays.fill(types, RowBatch.INT);
+        for (int i = 0; i < columns.length; ++i) {
+            types[i] = ABSTRACT_TYPES_TO_SNAPSHOT_TYPES.get(columns[i].getColumnType());
+        }
+        return types;
+    }
+
+    private static byte[] encodeGroup(SqlTable table, TablePlan plan, long seed, int firstRow, int lastRow) throws
+            IOException,
+            SQLException
+    {
+        RowBatch batch = new RowBatch(plan.getColumnCount(), lastRow - firstRow);
+        batch.clear(firstRow);
+        plan.writeRows(batch, firstRow, lastRow, Randoms.forRows(seed, table.getTableName()));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (int column = 1; column < plan.getColumnCount(); ++column) {
+            batch.writeColumn(column, out);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static byte[] getGroup(Future<byte[]> group) throws
+            IOException,
+            SQLException
+    {
+        try {
+            return group.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Snapshot writing was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException)e.getCause();
+            } else if (e.getCause() instanceof SQLException) {
+                throw (SQLException)e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Generates tables in the given order into a snapshot file. Groups of rows are generated by the executor, at most
+     * two groups per worker are held in memory while they wait to be written in order.
+     */
+    static void write(File file, byte[] declaration, SqlTable[] tables, Map<String, Integer> rowCounts, long seed,
+                      int groupSize, ExecutorService executor, int workers, GenerationMetrics metrics) throws
+            IOException,
+            SQLException
+    {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file),
+                OUTPUT_BUFFER_SIZE))) {
+            out.writeLong(MAGIC);
+            out.writeLong(seed);
+            out.writeInt(declaration.length);
+            out.write(declaration);
+            out.writeInt(tables.length);
+            for (SqlTable t : tables) {
+                String tableName = t.getTableName();
+                int rowCount = rowCounts.get(tableName);
+                byte[] name = tableName.getBytes(StandardCharsets.UTF_8);
+                byte[] types = getColumnTypes(t);
+                out.writeInt(name.length);
+                out.write(name);
+                out.writeInt(rowCount);
+                out.writeInt(types.length);
+                out.write(types);
+                out.writeInt((int)((rowCount + (long)groupSize - 1) / groupSize));
+                System.out.println("Writing \"" + tableName + "\" table..");
+                TablePlan plan = DataGenerator.compileTable(t, t.getForeignKeys(), rowCounts, seed);
+                metrics.getTable(tableName).started();
+                Deque<Future<byte[]>> pending = new ArrayDeque<>();
+                int nextRow = 0;
+                int writtenRow = 0;
+                while (writtenRow < rowCount) {
+                    while (nextRow < rowCount && pending.size() < 2 * workers) {
+                        int firstRow = nextRow;
+                        int lastRow = (int)Math.min((long)firstRow + groupSize, rowCount);
+                        pending.add(executor.submit(() -> encodeGroup(t, plan.copy(), seed, firstRow, lastRow)));
+                        nextRow = lastRow;
+                    }
+                    byte[] group = getGroup(pending.poll());
+                    int groupRows = (int)Math.min((long)writtenRow + groupSize, rowCount) - writtenRow;
+                    out.writeInt(writtenRow);
+                    out.writeInt(groupRows);
+                    out.writeLong(group.length);
+                    out.write(group);
+                    writtenRow += groupRows;
+                    metrics.getTable(tableName).rowsWritten(groupRows);
+                }
+            }
+        }
+    }
+
+    private static ByteBuffer readAt(FileChannel channel, long position, int length) throws
+            IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Snapshot is truncated");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    static Snapshot open(File file) throws
+            IOException,
+            DatabaseGenerationException
+    {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            if (channel.read(header, 0) < HEADER_SIZE || header.getLong(0) != MAGIC) {
+                throw new DatabaseGenerationException("\"" + file + "\" is not a snapshot");
+            }
+            byte[] declaration = readAt(channel, HEADER_SIZE, header.getInt(2 * Long.BYTES)).array();
+            Snapshot snapshot = new Snapshot(channel, declaration, header.getLong(Long.BYTES));
+            snapshot.readTables(HEADER_SIZE + declaration.length);
+            return snapshot;
+        } catch (IOException | DatabaseGenerationException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void readTables(long position) throws
+            IOException
+    {
+        int tableCount = readAt(channel, position, Integer.BYTES).getInt();
+        position += Integer.BYTES;
+        for (int i = 0; i < tableCount; ++i) {
+            int nameLength = readAt(channel, position, Integer.BYTES).getInt();
+            String tableName = new String(readAt(channel, position + Integer.BYTES, nameLength).array(), StandardCharsets.UTF_8);
+            position += Integer.BYTES + nameLength;
+            ByteBuffer counts = readAt(channel, position, 2 * Integer.BYTES);
+            rowCounts.put(tableName, counts.getInt());
+            byte[] types = readAt(channel, position + 2 * Integer.BYTES, counts.getInt()).array();
+            columnTypes.put(tableName, types);
+            position += 2 * Integer.BYTES + types.length;
+            int groupCount = readAt(channel, position, Integer.BYTES).getInt();
+            position += Integer.BYTES;
+            for (int j = 0; j < groupCount; ++j) {
+                ByteBuffer group = readAt(channel, position, GROUP_HEADER_SIZE);
+                int firstRow = group.getInt();
+                int rowCount = group.getInt();
+                long length = group.getLong();
+                groups.add(new Group(tableName, firstRow, rowCount, position + GROUP_HEADER_SIZE, length));
+                position += GROUP_HEADER_SIZE + length;
+            }
+        }
+    }
+
+    byte[] getDeclaration()
+    {
+        return declaration;
+    }
+
+    long getSeed()
+    {
+        return seed;
+    }
+
+    Map<String, Integer> getRowCounts()
+    {
+        return rowCounts;
+    }
+
+    List<Group> getGroups()
+    {
+        return groups;
+    }
+
+    /**
+     * Checks that the table has the columns stored in the snapshot, in the same order and of the same types.
+     */
+    boolean matches(SqlTable table)
+    {
+        return Arrays.equals(columnTypes.get(table.getTableName()), getColumnTypes(table));
+    }
+
+    /**
+     * Writes rows of the group to the sink, ids included. Safe to call from several threads for different groups.
+     */
+    void replay(Group group, RowSink sink) throws
+            IOException,
+            SQLException
+    {
+        MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, group.position, group.length);
+        byte[] types = columnTypes.get(group.tableName);
+        ByteBuffer[] columns = new ByteBuffer[types.length];
+        int position = 0;
+        for (int i = 0; i < types.length; ++i) {
+            int length = data.getInt(position);
+            data.position(position + Integer.BYTES);
+            columns[i] = data.slice();
+            columns[i].limit(length);
+            position += Integer.BYTES + length;
+        }
+        byte[] buffer = new byte[0];
+        for (int row = 0; row < group.rowCount; ++row) {
+            sink.setInt(0, group.firstRow + row + 1);
+            for (int i = 0; i < types.length; ++i) {
+                switch (types[i]) {
+                    case RowBatch.INT:
+                        sink.setInt(i + 1, columns[i].getInt());
+                        break;
+                    case RowBatch.DOUBLE:
+                        sink.setDouble(i + 1, columns[i].getDouble());
+                        break;
+                    case RowBatch.BOOLEAN:
+                        sink.setBoolean(i + 1, columns[i].get() != 0);
+                        break;
+                    default:
+                        int length = columns[i].getShort() & 0xffff;
+                        if (buffer.length < length) {
+                            buffer = new byte[length];
+                        }
+                        columns[i].get(buffer, 0, length);
+                        sink.setString(i + 1, new String(buffer, 0, length, StandardCharsets.UTF_8));
+                }
+            }
+            sink.endRow();
+        }
+        sink.flush();
+    }
+
+    @Override
+    public void close() throws
+            IOException
+    {
+        channel.close();
+    }
+}
@@ -0,0 +1,136 @@
+package main.com.company.generators;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes rows to an SQL script as multi-row INSERT statements.
+ */
+class SqlFileRowSink implements RowSink {
+    private final Writer out;
+
+    private final String insertPrefix;
+
+    private final int rowsPerStatement;
+
+    private int rowsInStatement;
+
+    SqlFileRowSink(Writer out, String tableName, String columnNames, int rowsPerStatement)
+    {
+        this.out = out;
+        insertPrefix = "INSERT INTO " + tableName + " (" + columnNames + ") VALUES\n(";
+        this.rowsPerStatement = rowsPerStatement;
+    }
+
+    private void startValue(int column) throws
+            IOException
+    {
+        if (column != 0) {
+            out.write(',');
+        } else if (rowsInStatement == 0) {
+            out.write(insertPrefix);
+        } else {
+            out.write(",\n(");
+        }
+    }
+
+    @Override
+    public void setInt(int column, int value) throws
+            IOException
+    {
+        startValue(column);
+        out.write(Integer.toString(value));
+    }
+
+    @Override
+    public void setDouble(int column, double value) throws
+            IOException
+    {
+        startValue(column);
+        out.write(Double.toString(value));
+    }
+
+    @Override
+    public void setBoolean(int column, boolean value) throws
+            IOException
+    {
+        startValue(column);
+        out.write(value ? '1' : '0');
+    }
+
+    private void writeCharacter(char c) throws
+            IOException
+    {
+        switch (c) {
+            case '\'':
+            case '\\':
+                out.write('\\');
+                out.write(c);
+                break;
+            case '\n':
+                out.write("\\n");
+                break;
+            case '\r':
+                out.write("\\r");
+                break;
+            case '\0':
+                out.write("\\0");
+                break;
+            default:
+                out.write(c);
+        }
+    }
+
+    @Override
+    public void setString(int column, String value) throws
+            IOException
+    {
+        startValue(column);
+        out.write('\'');
+        for (int i = 0; i < value.length(); ++i) {
+            writeCharacter(value.charAt(i));
+        }
+        out.write('\'');
+    }
+
+    @Override
+    public void setAscii(int column, byte[] value, int length) throws
+            IOException
+    {
+        startValue(column);
+        out.write('\'');
+        for (int i = 0; i < length; ++i) {
+            writeCharacter((char)value[i]);
+        }
+        out.write('\'');
+    }
+
+    @Override
+    public void endRow() throws
+            IOException
+    {
+        out.write(')');
+        if (++rowsInStatement == rowsPerStatement) {
+            out.write(";\n");
+            rowsInStatement = 0;
+        }
+    }
+
+    @Override
+    public void flush() throws
+            IOException
+    {
+        if (rowsInStatement != 0) {
+            out.write(";\n");
+            rowsInStatement = 0;
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws
+            IOException
+    {
+        out.close();
+    }
+}
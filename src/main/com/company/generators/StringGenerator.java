@@ -0,0 +1,64 @@
+package main.com.company.generators;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Generates random ASCII strings into a buffer of the caller. Each random long provides ten characters of a 64 letters
+ * alphabet, so no per-character random calls nor charset conversions are needed. The generator holds no state, so
+ * threads share it and only own their buffers.
+ */
+final class StringGenerator {
+    private static final byte[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789_-"
+            .getBytes(StandardCharsets.US_ASCII);
+
+    private static final int BITS_PER_CHARACTER = 6;
+
+    private static final int CHARACTERS_PER_LONG = Long.SIZE / BITS_PER_CHARACTER;
+
+    private final int minLength;
+
+    private final int lengthRange;
+
+    private final int maxLength;
+
+    StringGenerator(int minLength, int maxLength)
+    {
+        this.minLength = minLength;
+        lengthRange = maxLength - minLength + 1;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Fills the buffer, at least {@link #getMaxLength()} bytes long, with the next string.
+     *
+     * @return length of the generated string
+     */
+    int next(RowRandom random, byte[] buffer)
+    {
+        int length = lengthRange == 1 ? minLength : minLength + random.nextInt(lengthRange);
+        long bits = 0;
+        for (int i = 0; i < length; ++i) {
+            if (i % CHARACTERS_PER_LONG == 0) {
+                bits = random.nextLong();
+            }
+            buffer[i] = ALPHABET[(int)(bits & (ALPHABET.length - 1))];
+            bits >>>= BITS_PER_CHARACTER;
+        }
+        return length;
+    }
+
+    int getMaxLength()
+    {
+        return maxLength;
+    }
+
+    String[] dictionary(int size, RowRandom random)
+    {
+        String[] result = new String[size];
+        byte[] buffer = new byte[maxLength];
+        for (int i = 0; i < size; ++i) {
+            result[i] = new String(buffer, 0, next(random, buffer), StandardCharsets.US_ASCII);
+        }
+        return result;
+    }
+}
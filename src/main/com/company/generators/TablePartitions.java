@@ -0,0 +1,166 @@
+package main.com.company.generators;
+
+import main.com.company.models.SqlTable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Partitions of a table declared with a partitions count. Tables are partitioned by id, either in contiguous ranges
+ * of the planned rows or by id modulo the partitions count as MySQL HASH partitioning does. Rows of one partition
+ * are loaded apart from the other partitions, so concurrent loaders do not contend for the same index pages.
+ */
+final class TablePartitions {
+    /**
+     * Rows of a table part stored in one partition, the i-th row being the row {@code firstRow + i * rowStep} of
+     * the part, see {@link TablePlan#slice}.
+     */
+    static final class Partition {
+        private final int number;
+
+        private final int count;
+
+        private final int firstRow;
+
+        private final int rowStep;
+
+        private final int rowCount;
+
+        private Partition(int number, int count, int firstRow, int rowStep, int rowCount)
+        {
+            this.number = number;
+            this.count = count;
+            this.firstRow = firstRow;
+            this.rowStep = rowStep;
+            this.rowCount = rowCount;
+        }
+
+        /**
+         * Partition number, or -1 for a table which is not partitioned.
+         */
+        int getNumber()
+        {
+            return number;
+        }
+
+        String getName()
+        {
+            return "p" + number;
+        }
+
+        int getFirstRow()
+        {
+            return firstRow;
+        }
+
+        int getRowStep()
+        {
+            return rowStep;
+        }
+
+        int getRowCount()
+        {
+            return rowCount;
+        }
+
+        /**
+         * Checkpoint chunk of the given chunk of the partition rows. Chunks of different partitions are interleaved,
+         * so a table which is not partitioned keeps its chunk numbers.
+         */
+        int getChunk(int index)
+        {
+            return number < 0 ? index : number + index * count;
+        }
+    }
+
+    private TablePartitions()
+    {
+    }
+
+    private static long getRangeBound(int rowCount, int partitions, int partition)
+    {
+        return (long)rowCount * (partition + 1) / partitions + 1;
+    }
+
+    /**
+     * Partitioning clause of the table created for the given rows count, empty if the table is not partitioned.
+     * Range bounds split the planned ids evenly, ids appended later go to the last partition.
+     */
+    static String getPartitionClause(SqlTable table, int rowCount)
+    {
+        int partitions = table.getPartitions();
+        if (partitions == 0) {
+            return "";
+        }
+        if (table.getPartitionMethod().equals("hash")) {
+            return " PARTITION BY HASH(id) PARTITIONS " + partitions;
+        }
+        StringBuilder clause = new StringBuilder(" PARTITION BY RANGE(id) (");
+        for (int p = 0; p < partitions; ++p) {
+            clause.append(p == 0 ? "" : ",").append("PARTITION p").append(p).append(" VALUES LESS THAN (")
+                    .append(p == partitions - 1 ? "MAXVALUE" : String.valueOf(getRangeBound(rowCount, partitions, p)))
+                    .append(')');
+        }
+        return clause.append(')').toString();
+    }
+
+    private static int gcd(int a, int b)
+    {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    /**
+     * First row of the table part whose row of the whole table is not below the given one.
+     */
+    private static int getFirstRowFrom(long row, long rowOffset, int rowStride, int rowCount)
+    {
+        if (row <= rowOffset) {
+            return 0;
+        }
+        return (int)Math.min((row - rowOffset + rowStride - 1) / rowStride, rowCount);
+    }
+
+    /**
+     * Single partition holding all rows of a table part, used when rows are added to a table which already has some.
+     */
+    static Partition whole(int rowCount)
+    {
+        return new Partition(-1, 1, 0, 1, rowCount);
+    }
+
+    /**
+     * Partitions of the rows of the table stored by the shard, a single partition holding all of them if the table
+     * is not partitioned.
+     */
+    static List<Partition> split(SqlTable table, int rowCount, Shard shard)
+    {
+        String tableName = table.getTableName();
+        int shardRowCount = shard.getRowCount(tableName, rowCount);
+        List<Partition> result = new ArrayList<>();
+        int partitions = table.getPartitions();
+        if (partitions == 0) {
+            result.add(whole(shardRowCount));
+            return result;
+        }
+        long rowOffset = shard.getRowOffset(tableName, rowCount);
+        int rowStride = shard.getRowStride(tableName);
+        for (int p = 0; p < partitions; ++p) {
+            if (table.getPartitionMethod().equals("hash")) {
+                int first = 0;
+                while (first < partitions && (rowOffset + (long)first * rowStride + 1) % partitions != p) {
+                    ++first;
+                }
+                int step = partitions / gcd(rowStride, partitions);
+                int count = first < partitions && first < shardRowCount ? (shardRowCount - 1 - first) / step + 1 : 0;
+                result.add(new Partition(p, partitions, first, step, count));
+            } else {
+                long low = p == 0 ? 0 : getRangeBound(rowCount, partitions, p - 1) - 1;
+                long high = p == partitions - 1 ? rowCount : getRangeBound(rowCount, partitions, p) - 1;
+                int first = getFirstRowFrom(low, rowOffset, rowStride, shardRowCount);
+                int last = getFirstRowFrom(high, rowOffset, rowStride, shardRowCount);
+                result.add(new Partition(p, partitions, first, 1, last - first));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,108 @@
+package main.com.company.generators;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * Table compiled to specialized writers of its columns, one writer per column following the id one. Writers are
+ * resolved once per table, so generating a row involves no lookups, type checks nor boxing. Writers hold no state and
+ * are shared by the copies and slices of a plan, each of which owns the buffer its strings are generated into, so a
+ * plan must be used by one thread at a time.
+ * <p>
+ * Every writer reads its own stream of the row, given by the position of its column in the table declaration, so a
+ * value depends only on the row index and its column, not on the other writers of the plan.
+ */
+class TablePlan {
+    interface ColumnWriter {
+        /**
+         * @param buffer buffer of the plan, long enough for the longest string of the table
+         */
+        void write(RowSink sink, int column, RowRandom random, byte[] buffer) throws IOException, SQLException;
+    }
+
+    private final ColumnWriter[] writers;
+
+    private final int[] streams;
+
+    private final byte[] buffer;
+
+    private final int rowOffset;
+
+    private final int rowStride;
+
+    TablePlan(ColumnWriter[] columnWriters, int[] columnStreams, int bufferLength)
+    {
+        this(columnWriters, columnStreams, bufferLength, 0, 1);
+    }
+
+    /**
+     * Plan of a table part whose i-th row is the row {@code rowOffset + i * rowStride} of the whole table, see
+     * {@link #writeRows}.
+     */
+    TablePlan(ColumnWriter[] columnWriters, int[] columnStreams, int bufferLength, int rowOffset, int rowStride)
+    {
+        writers = columnWriters;
+        streams = columnStreams;
+        buffer = new byte[bufferLength];
+        this.rowOffset = rowOffset;
+        this.rowStride = rowStride;
+    }
+
+    /**
+     * Number of values in a row, the id included.
+     */
+    int getColumnCount()
+    {
+        return writers.length + 1;
+    }
+
+    /**
+     * Row of the whole table written as the given row of the table part.
+     */
+    int getRow(int index)
+    {
+        return rowOffset + index * rowStride;
+    }
+
+    /**
+     * Plan of the rows {@code firstRow + i * rowStep} of this table part, sharing the writers of this plan, for use
+     * by another thread.
+     */
+    TablePlan slice(int firstRow, int rowStep)
+    {
+        return new TablePlan(writers, streams, buffer.length, getRow(firstRow), rowStride * rowStep);
+    }
+
+    /**
+     * Plan of the same rows sharing the writers of this plan, for use by another thread.
+     */
+    TablePlan copy()
+    {
+        return slice(0, 1);
+    }
+
+    void writeRow(RowSink sink, int row, RowRandom random) throws
+            IOException,
+            SQLException
+    {
+        sink.setInt(0, row + 1);
+        for (int i = 0; i < writers.length; ++i) {
+            random.seek(row, streams[i]);
+            writers[i].write(sink, i + 1, random, buffer);
+        }
+        sink.endRow();
+    }
+
+    /**
+     * Writes rows [firstRow, lastRow) of the table part the plan was compiled for.
+     */
+    void writeRows(RowSink sink, int firstRow, int lastRow, RowRandom random) throws
+            IOException,
+            SQLException
+    {
+        for (int i = firstRow; i < lastRow; ++i) {
+            writeRow(sink, getRow(i), random);
+        }
+        sink.flush();
+    }
+}
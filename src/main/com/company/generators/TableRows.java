@@ -0,0 +1,272 @@
+package main.com.company.generators;
+
+import main.com.company.models.Reference;
+import main.com.company.models.SqlColumn;
+import main.com.company.models.SqlDatabase;
+import main.com.company.models.SqlTable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Rows of a declared table generated on demand, for use as a library. A row is a pure function of the seed, table
+ * and row index, and is equal to the row written to a generated database or dump with the same seed, so any slice
+ * of a table can be regenerated without storing it.
+ * <p>
+ * Values of a row follow {@link #getColumnNames()}: the id, declared columns, then references. Integers and
+ * references are {@link Integer}, doubles are {@link Double}, booleans are {@link Boolean} and strings are
+ * {@link String}.
+ */
+public class TableRows {
+    private final SqlTable table;
+
+    private final Map<String, Integer> rowCounts;
+
+    private final long seed;
+
+    private final String[] columnNames;
+
+    private final TablePlan plan;
+
+    private final ThreadLocal<RowGenerator> generators = ThreadLocal.withInitial(RowGenerator::new);
+
+    private TableRows(SqlTable table, Map<String, Integer> rowCounts, long seed)
+    {
+        this.table = table;
+        this.rowCounts = rowCounts;
+        this.seed = seed;
+        SqlColumn[] columns = table.getTableColumns();
+        Reference[] refs = table.getForeignKeys();
+        columnNames = new String[1 + columns.length + refs.length];
+        columnNames[0] = "id";
+        for (int i = 0; i < columns.length; ++i) {
+            columnNames[1 + i] = columns[i].getColumnName();
+        }
+        for (int i = 0; i < refs.length; ++i) {
+            columnNames[1 + columns.length + i] = refs[i].getColumnName();
+        }
+        plan = DataGenerator.compileTable(table, refs, rowCounts, seed);
+    }
+
+    public static TableRows of(SqlDatabase database, String tableName, long seed)
+    {
+        return of(database, tableName, seed, 1);
+    }
+
+    /**
+     * Rows of the table in a run with the given scale factor, see the "scale" property.
+     */
+    public static TableRows of(SqlDatabase database, String tableName, long seed, double scale)
+    {
+        SqlTable table = database.getTable(tableName);
+        if (table == null) {
+            throw new IllegalArgumentException("Table \"" + tableName + "\" is not declared");
+        }
+        Map<String, Integer> rowCounts = DataGenerator.getRowCounts(database.getGenerationOrder(), seed, scale);
+        try {
+            UniqueValues.check(table, rowCounts.get(tableName));
+        } catch (DatabaseGenerationException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+        return new TableRows(table, rowCounts, seed);
+    }
+
+    public String getTableName()
+    {
+        return table.getTableName();
+    }
+
+    public String[] getColumnNames()
+    {
+        return columnNames.clone();
+    }
+
+    public int size()
+    {
+        return rowCounts.get(table.getTableName());
+    }
+
+    public Object[] getRow(int index)
+    {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Row " + index + " of " + size());
+        }
+        return generators.get().generate(index);
+    }
+
+    public Spliterator<Object[]> spliterator()
+    {
+        return spliterator(0, size());
+    }
+
+    public Spliterator<Object[]> spliterator(int fromRow, int toRow)
+    {
+        if (fromRow < 0 || toRow > size() || fromRow > toRow) {
+            throw new IndexOutOfBoundsException("Rows " + fromRow + ".." + toRow + " of " + size());
+        }
+        return new RowSpliterator(fromRow, toRow);
+    }
+
+    public Stream<Object[]> stream()
+    {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<Object[]> stream(int fromRow, int toRow)
+    {
+        return StreamSupport.stream(spliterator(fromRow, toRow), false);
+    }
+
+    public Stream<Object[]> parallelStream()
+    {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Copy of the compiled plan with its random stream and a sink collecting values, used by one thread at a time.
+     */
+    private class RowGenerator implements RowSink {
+        private final TablePlan plan = TableRows.this.plan.copy();
+
+        private final RowRandom random = Randoms.forRows(seed, table.getTableName());
+
+        private Object[] values;
+
+        Object[] generate(int row)
+        {
+            values = new Object[columnNames.length];
+            try {
+                plan.writeRow(this, row, random);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            return values;
+        }
+
+        @Override
+        public void setInt(int column, int value)
+        {
+            values[column] = value;
+        }
+
+        @Override
+        public void setDouble(int column, double value)
+        {
+            values[column] = value;
+        }
+
+        @Override
+        public void setBoolean(int column, boolean value)
+        {
+            values[column] = value;
+        }
+
+        @Override
+        public void setString(int column, String value)
+        {
+            values[column] = value;
+        }
+
+        @Override
+        public void setAscii(int column, byte[] value, int length)
+        {
+            values[column] = new String(value, 0, length, StandardCharsets.US_ASCII);
+        }
+
+        @Override
+        public void endRow()
+        {
+        }
+
+        @Override
+        public void flush()
+        {
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
+    /**
+     * Range of rows split in halves for parallel streams. The plan is copied when the first row is generated, so
+     * splitting costs nothing.
+     */
+    private class RowSpliterator implements Spliterator<Object[]> {
+        private int nextRow;
+
+        private final int lastRow;
+
+        private RowGenerator generator;
+
+        RowSpliterator(int fromRow, int toRow)
+        {
+            nextRow = fromRow;
+            lastRow = toRow;
+        }
+
+        private RowGenerator getGenerator()
+        {
+            if (generator == null) {
+                generator = new RowGenerator();
+            }
+            return generator;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Object[]> action)
+        {
+            if (nextRow >= lastRow) {
+                return false;
+            }
+            action.accept(getGenerator().generate(nextRow++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Object[]> action)
+        {
+            if (nextRow >= lastRow) {
+                return;
+            }
+            RowGenerator g = getGenerator();
+            while (nextRow < lastRow) {
+                action.accept(g.generate(nextRow++));
+            }
+        }
+
+        @Override
+        public Spliterator<Object[]> trySplit()
+        {
+            int middle = (nextRow + lastRow) >>> 1;
+            if (middle <= nextRow) {
+                return null;
+            }
+            Spliterator<Object[]> prefix = new RowSpliterator(nextRow, middle);
+            nextRow = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize()
+        {
+            return lastRow - nextRow;
+        }
+
+        @Override
+        public int characteristics()
+        {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+}
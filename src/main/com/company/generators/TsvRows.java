@@ -0,0 +1,201 @@
+package main.com.company.generators;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.sql.SQLException;
+
+/**
+ * Rows of a table chunk encoded on demand in the default LOAD DATA format: tab separated fields, newline
+ * terminated lines and backslash escapes. Only one buffer of encoded rows exists at a time, so a chunk of any
+ * size can be streamed to a file or to the driver.
+ */
+final class TsvRows implements RowSink {
+    interface RowEncoder {
+        void encode(RowSink out, int row) throws IOException, SQLException;
+    }
+
+    private final RowEncoder encoder;
+
+    private final int lastRow;
+
+    private int nextRow;
+
+    private ByteBuffer buffer;
+
+    private final byte[] digits = new byte[11];
+
+    private final StringBuilder number = new StringBuilder();
+
+    TsvRows(RowEncoder rowEncoder, int firstRow, int lastRow, int bufferSize)
+    {
+        encoder = rowEncoder;
+        nextRow = firstRow;
+        this.lastRow = lastRow;
+        buffer = ByteBuffer.allocate(bufferSize);
+        buffer.flip();
+    }
+
+    private boolean refill() throws
+            IOException
+    {
+        buffer.clear();
+        while (nextRow < lastRow) {
+            int rowStart = buffer.position();
+            try {
+                encoder.encode(this, nextRow);
+                ++nextRow;
+            } catch (SQLException e) {
+                throw new IOException(e);
+            } catch (BufferOverflowException e) {
+                buffer.position(rowStart);
+                if (rowStart == 0) {
+                    buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                    continue;
+                }
+                break;
+            }
+        }
+        buffer.flip();
+        return buffer.hasRemaining();
+    }
+
+    void writeTo(WritableByteChannel channel) throws
+            IOException
+    {
+        while (buffer.hasRemaining() || refill()) {
+            channel.write(buffer);
+        }
+    }
+
+    InputStream asInputStream()
+    {
+        return new InputStream() {
+            @Override
+            public int read() throws
+                    IOException
+            {
+                return buffer.hasRemaining() || refill() ? buffer.get() & 0xFF : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws
+                    IOException
+            {
+                if (len == 0) {
+                    return 0;
+                }
+                if (!buffer.hasRemaining() && !refill()) {
+                    return -1;
+                }
+                int count = Math.min(len, buffer.remaining());
+                buffer.get(b, off, count);
+                return count;
+            }
+        };
+    }
+
+    private void startValue(int column)
+    {
+        if (column != 0) {
+            buffer.put((byte)'\t');
+        }
+    }
+
+    @Override
+    public void setInt(int column, int value)
+    {
+        startValue(column);
+        long v = value;
+        if (v < 0) {
+            buffer.put((byte)'-');
+            v = -v;
+        }
+        int i = digits.length;
+        do {
+            digits[--i] = (byte)('0' + v % 10);
+            v /= 10;
+        } while (v != 0);
+        buffer.put(digits, i, digits.length - i);
+    }
+
+    @Override
+    public void setDouble(int column, double value)
+    {
+        startValue(column);
+        number.setLength(0);
+        number.append(value);
+        for (int i = 0; i < number.length(); ++i) {
+            buffer.put((byte)number.charAt(i));
+        }
+    }
+
+    @Override
+    public void setBoolean(int column, boolean value)
+    {
+        startValue(column);
+        buffer.put((byte)(value ? '1' : '0'));
+    }
+
+    private void putCharacter(char c)
+    {
+        switch (c) {
+            case '\\':
+                buffer.put((byte)'\\').put((byte)'\\');
+                break;
+            case '\t':
+                buffer.put((byte)'\\').put((byte)'t');
+                break;
+            case '\n':
+                buffer.put((byte)'\\').put((byte)'n');
+                break;
+            case '\0':
+                buffer.put((byte)'\\').put((byte)'0');
+                break;
+            default:
+                if (c < 0x80) {
+                    buffer.put((byte)c);
+                } else if (c < 0x800) {
+                    buffer.put((byte)(0xC0 | c >> 6)).put((byte)(0x80 | c & 0x3F));
+                } else {
+                    buffer.put((byte)(0xE0 | c >> 12)).put((byte)(0x80 | c >> 6 & 0x3F)).put((byte)(0x80 | c & 0x3F));
+                }
+        }
+    }
+
+    @Override
+    public void setString(int column, String value)
+    {
+        startValue(column);
+        for (int i = 0; i < value.length(); ++i) {
+            putCharacter(value.charAt(i));
+        }
+    }
+
+    @Override
+    public void setAscii(int column, byte[] value, int length)
+    {
+        startValue(column);
+        for (int i = 0; i < length; ++i) {
+            putCharacter((char)value[i]);
+        }
+    }
+
+    @Override
+    public void endRow()
+    {
+        buffer.put((byte)'\n');
+    }
+
+    @Override
+    public void flush()
+    {
+    }
+
+    @Override
+    public void close()
+    {
+    }
+}
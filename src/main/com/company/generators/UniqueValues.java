@@ -0,0 +1,88 @@
+package main.com.company.generators;
+
+import main.com.company.models.SqlColumn;
+import main.com.company.models.SqlNumericColumn;
+import main.com.company.models.SqlStringColumn;
+import main.com.company.models.SqlTable;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writers of unique columns. The value of a row is picked by the image of the row index under a keyed permutation of
+ * the column's domain, so values are distinct by construction and, like any other value, depend only on the row:
+ * no set of generated values is kept, chunks can be filled in parallel and appended rows do not repeat existing
+ * values.
+ * <p>
+ * Integers are a permutation of the declared [mean - deviation, mean + deviation] range. Strings start with a prefix
+ * encoding the permuted index in a case-insensitive alphabet, so they stay distinct under case-insensitive
+ * collations, the rest of the string is random.
+ */
+final class UniqueValues {
+    private static final byte[] PREFIX_ALPHABET = "abcdefghijklmnopqrstuvwxyz012345".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int BITS_PER_PREFIX_CHARACTER = 5;
+
+    private static final int MAX_PREFIX_LENGTH = 6;
+
+    private UniqueValues()
+    {
+    }
+
+    private static long getLowestValue(SqlNumericColumn column)
+    {
+        double deviation = Math.abs(column.getMean() * column.getDispersionPercentage() / 100.0);
+        return (long)Math.ceil(column.getMean() - deviation);
+    }
+
+    private static int getPrefixLength(SqlStringColumn column)
+    {
+        return Math.min(column.getMinLength(), MAX_PREFIX_LENGTH);
+    }
+
+    /**
+     * Number of distinct values the column can take.
+     */
+    static long getDomainSize(SqlColumn column)
+    {
+        if (column instanceof SqlStringColumn) {
+            return 1L << (getPrefixLength((SqlStringColumn)column) * BITS_PER_PREFIX_CHARACTER);
+        }
+        SqlNumericColumn c = (SqlNumericColumn)column;
+        double deviation = Math.abs(c.getMean() * c.getDispersionPercentage() / 100.0);
+        return (long)Math.floor(c.getMean() + deviation) - getLowestValue(c) + 1;
+    }
+
+    static void check(SqlTable table, int rowCount) throws
+            DatabaseGenerationException
+    {
+        for (SqlColumn c : table.getTableColumns()) {
+            if (c.isUnique() && getDomainSize(c) < rowCount) {
+                throw new DatabaseGenerationException("Table \"" + table.getTableName() + "\": unique column \""
+                        + c.getColumnName() + "\" has only " + getDomainSize(c) + " values for " + rowCount + " rows"
+                        + (c instanceof SqlStringColumn ? ", increase its minLength" : ", widen its range"));
+            }
+        }
+    }
+
+    static TablePlan.ColumnWriter getWriter(SqlTable table, SqlColumn column, long seed)
+    {
+        Permutation permutation = Randoms.forUnique(seed, table.getTableName() + "." + column.getColumnName(),
+                getDomainSize(column));
+        if (column instanceof SqlNumericColumn) {
+            long lowest = getLowestValue((SqlNumericColumn)column);
+            return (sink, c, random, buffer) -> sink.setInt(c, (int)(lowest + permutation.get(random.getRow())));
+        }
+        SqlStringColumn stringColumn = (SqlStringColumn)column;
+        StringGenerator generator = new StringGenerator(stringColumn.getMinLength(), stringColumn.getMaxLength());
+        int prefixLength = getPrefixLength(stringColumn);
+        return (sink, c, random, buffer) -> {
+            int length = generator.next(random, buffer);
+            long index = permutation.get(random.getRow());
+            for (int i = 0; i < prefixLength; ++i) {
+                buffer[i] = PREFIX_ALPHABET[(int)(index & (PREFIX_ALPHABET.length - 1))];
+                index >>>= BITS_PER_PREFIX_CHARACTER;
+            }
+            sink.setAscii(c, buffer, length);
+        };
+    }
+}
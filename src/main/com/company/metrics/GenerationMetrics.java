@@ -0,0 +1,276 @@
+package main.com.company.metrics;
+
+import javax.management.*;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics of a generation run: per-table counters and latencies, overall throughput and ETA. While the run is active
+ * they are exposed as MXBeans and printed as a periodic progress line; a JSON summary can be written at the end.
+ */
+public class GenerationMetrics implements GenerationMetricsMXBean, AutoCloseable {
+    private static final String DOMAIN = "main.com.company.metrics";
+
+    private final String databaseName;
+
+    private final Map<String, TableMetrics> tables = new LinkedHashMap<>();
+
+    private final List<ObjectName> registeredNames = new ArrayList<>();
+
+    private long startNanos;
+
+    private long endNanos;
+
+    private ScheduledExecutorService reporter;
+
+    public GenerationMetrics(String databaseName)
+    {
+        this.databaseName = databaseName;
+    }
+
+    public TableMetrics addTable(String tableName, long rowsPlanned)
+    {
+        TableMetrics metrics = new TableMetrics(tableName, rowsPlanned);
+        tables.put(tableName, metrics);
+        return metrics;
+    }
+
+    public TableMetrics getTable(String tableName)
+    {
+        return tables.get(tableName);
+    }
+
+    private void register(Object bean, String name)
+    {
+        try {
+            ObjectName objectName = new ObjectName(name);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(bean, objectName);
+            registeredNames.add(objectName);
+        } catch (JMException e) {
+            System.out.println("Cannot register \"" + name + "\" MBean: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts the run clock, registers MXBeans and starts printing progress every given number of seconds (no progress
+     * is printed if it is 0).
+     */
+    public void start(int progressIntervalSeconds)
+    {
+        startNanos = System.nanoTime();
+        register(this, DOMAIN + ":type=Generation,database=" + databaseName);
+        for (TableMetrics t : tables.values()) {
+            register(t, DOMAIN + ":type=Table,database=" + databaseName + ",name=" + t.getTableName());
+        }
+        if (progressIntervalSeconds > 0) {
+            reporter = Executors.newSingleThreadScheduledExecutor((r) -> {
+                Thread thread = new Thread(r, "generation-progress");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reporter.scheduleAtFixedRate(() -> System.out.println(getProgressLine()),
+                    progressIntervalSeconds, progressIntervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        if (endNanos != 0) {
+            return;
+        }
+        endNanos = System.nanoTime();
+        if (reporter != null) {
+            reporter.shutdownNow();
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : registeredNames) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException ignored) {
+            }
+        }
+        registeredNames.clear();
+    }
+
+    public String getProgressLine()
+    {
+        long eta = getEtaSeconds();
+        String bottleneck = getBottleneckTable();
+        String stage = getLimitingStage();
+        return String.format(Locale.ROOT, "Progress: %d/%d rows (%.1f%%), %.0f rows/s, ETA %s%s%s",
+                getRowsWritten(), getRowsPlanned(), getProgressPercentage(), getRowsPerSecond(),
+                eta < 0 ? "unknown" : String.format("%d:%02d:%02d", eta / 3600, eta / 60 % 60, eta % 60),
+                bottleneck == null ? "" : ", slowest table \"" + bottleneck + "\"",
+                stage == null ? "" : ", limited by " + stage);
+    }
+
+    private double getElapsedSeconds()
+    {
+        if (startNanos == 0) {
+            return 0;
+        }
+        return ((endNanos == 0 ? System.nanoTime() : endNanos) - startNanos) / 1e9;
+    }
+
+    private LatencyHistogram merge(boolean commits)
+    {
+        LatencyHistogram result = new LatencyHistogram();
+        for (TableMetrics t : tables.values()) {
+            (commits ? t.getCommitLatency() : t.getStatementLatency()).addTo(result);
+        }
+        return result;
+    }
+
+    @Override
+    public String getDatabaseName()
+    {
+        return databaseName;
+    }
+
+    @Override
+    public long getRowsPlanned()
+    {
+        long result = 0;
+        for (TableMetrics t : tables.values()) {
+            result += t.getRowsPlanned();
+        }
+        return result;
+    }
+
+    @Override
+    public long getRowsWritten()
+    {
+        long result = 0;
+        for (TableMetrics t : tables.values()) {
+            result += t.getRowsWritten();
+        }
+        return result;
+    }
+
+    @Override
+    public double getProgressPercentage()
+    {
+        long planned = getRowsPlanned();
+        return planned == 0 ? 100 : getRowsWritten() * 100.0 / planned;
+    }
+
+    @Override
+    public double getRowsPerSecond()
+    {
+        double elapsed = getElapsedSeconds();
+        return elapsed == 0 ? 0 : getRowsWritten() / elapsed;
+    }
+
+    @Override
+    public long getEtaSeconds()
+    {
+        double rate = getRowsPerSecond();
+        long remaining = getRowsPlanned() - getRowsWritten();
+        if (remaining <= 0) {
+            return 0;
+        }
+        return rate == 0 ? -1 : (long)(remaining / rate);
+    }
+
+    @Override
+    public String getBottleneckTable()
+    {
+        String result = null;
+        double longestRemaining = 0;
+        for (TableMetrics t : tables.values()) {
+            long remaining = t.getRowsPlanned() - t.getRowsWritten();
+            if (!t.isStarted() || remaining <= 0) {
+                continue;
+            }
+            double rate = t.getRowsPerSecond();
+            double remainingSeconds = rate == 0 ? Double.MAX_VALUE : remaining / rate;
+            if (result == null || remainingSeconds > longestRemaining) {
+                result = t.getTableName();
+                longestRemaining = remainingSeconds;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String getLimitingStage()
+    {
+        long generatorWait = 0;
+        long writerWait = 0;
+        for (TableMetrics t : tables.values()) {
+            generatorWait += t.getGeneratorWaitNanos();
+            writerWait += t.getWriterWaitNanos();
+        }
+        return TableMetrics.getLimitingStage(generatorWait, writerWait);
+    }
+
+    @Override
+    public double getStatementLatencyP99Millis()
+    {
+        return merge(false).getPercentileMillis(99);
+    }
+
+    @Override
+    public double getCommitLatencyP99Millis()
+    {
+        return merge(true).getPercentileMillis(99);
+    }
+
+    public void writeSummary(File file, boolean succeeded) throws
+            IOException
+    {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"database\": \"").append(databaseName).append("\",\n")
+                .append("  \"succeeded\": ").append(succeeded).append(",\n")
+                .append(String.format(Locale.ROOT, "  \"elapsedSeconds\": %.3f,\n", getElapsedSeconds()))
+                .append("  \"rowsPlanned\": ").append(getRowsPlanned()).append(",\n")
+                .append("  \"rowsWritten\": ").append(getRowsWritten()).append(",\n")
+                .append(String.format(Locale.ROOT, "  \"rowsPerSecond\": %.1f,\n", getRowsPerSecond()))
+                .append(getLimitingStage() == null ? "" : "  \"limitingStage\": \"" + getLimitingStage() + "\",\n")
+                .append("  \"statementLatency\": ").append(merge(false).toJson()).append(",\n")
+                .append("  \"commitLatency\": ").append(merge(true).toJson()).append(",\n")
+                .append("  \"tables\": [");
+        String separator = "\n";
+        for (TableMetrics t : tables.values()) {
+            json.append(separator)
+                    .append("    {\"name\": \"").append(t.getTableName()).append("\", ")
+                    .append("\"rowsPlanned\": ").append(t.getRowsPlanned()).append(", ")
+                    .append("\"rowsWritten\": ").append(t.getRowsWritten()).append(", ")
+                    .append(String.format(Locale.ROOT, "\"elapsedSeconds\": %.3f, ", t.getElapsedSeconds()))
+                    .append(String.format(Locale.ROOT, "\"rowsPerSecond\": %.1f, ", t.getRowsPerSecond()));
+            if (t.getLimitingStage() != null) {
+                json.append(String.format(Locale.ROOT, "\"generationSeconds\": %.3f, ", t.getGenerationSeconds()))
+                        .append(String.format(Locale.ROOT, "\"generatorWaitSeconds\": %.3f, ",
+                                t.getGeneratorWaitSeconds()))
+                        .append(String.format(Locale.ROOT, "\"writerWaitSeconds\": %.3f, ", t.getWriterWaitSeconds()))
+                        .append("\"limitingStage\": \"").append(t.getLimitingStage()).append("\", ");
+            }
+            if (!t.getPartitions().isEmpty()) {
+                json.append("\"partitions\": [");
+                String partitionSeparator = "";
+                for (Map.Entry<Integer, long[]> p : t.getPartitions().entrySet()) {
+                    json.append(partitionSeparator)
+                            .append("{\"name\": \"p").append(p.getKey()).append("\", ")
+                            .append("\"rows\": ").append(p.getValue()[0]).append(", ")
+                            .append(String.format(Locale.ROOT, "\"seconds\": %.3f}", p.getValue()[1] / 1e9));
+                    partitionSeparator = ", ";
+                }
+                json.append("], ");
+            }
+            json
+                    .append("\"statementLatency\": ").append(t.getStatementLatency().toJson()).append(", ")
+                    .append("\"commitLatency\": ").append(t.getCommitLatency().toJson()).append('}');
+            separator = ",\n";
+        }
+        json.append("\n  ]\n}\n");
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            out.write(json.toString());
+        }
+    }
+}
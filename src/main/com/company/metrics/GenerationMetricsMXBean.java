@@ -0,0 +1,23 @@
+package main.com.company.metrics;
+
+public interface GenerationMetricsMXBean {
+    String getDatabaseName();
+
+    long getRowsPlanned();
+
+    long getRowsWritten();
+
+    double getProgressPercentage();
+
+    double getRowsPerSecond();
+
+    long getEtaSeconds();
+
+    String getBottleneckTable();
+
+    String getLimitingStage();
+
+    double getStatementLatencyP99Millis();
+
+    double getCommitLatencyP99Millis();
+}
@@ -0,0 +1,89 @@
+package main.com.company.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two microsecond buckets, so percentiles are reported as upper bounds of
+ * their buckets.
+ */
+public class LatencyHistogram {
+    private static final int BUCKETS_COUNT = 40;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS_COUNT);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public void record(long nanos)
+    {
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        int bucket = Math.min(Long.SIZE - Long.numberOfLeadingZeros(micros), BUCKETS_COUNT - 1);
+        buckets.incrementAndGet(bucket);
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    public void addTo(LatencyHistogram histogram)
+    {
+        for (int i = 0; i < BUCKETS_COUNT; ++i) {
+            histogram.buckets.addAndGet(i, buckets.get(i));
+        }
+        histogram.count.add(count.sum());
+        histogram.totalNanos.add(totalNanos.sum());
+        histogram.maxNanos.accumulate(maxNanos.get());
+    }
+
+    public long getCount()
+    {
+        return count.sum();
+    }
+
+    public double getTotalMillis()
+    {
+        return totalNanos.sum() / 1e6;
+    }
+
+    public double getMeanMillis()
+    {
+        long c = count.sum();
+        return c == 0 ? 0 : totalNanos.sum() / 1e6 / c;
+    }
+
+    public double getMaxMillis()
+    {
+        return maxNanos.get() / 1e6;
+    }
+
+    public double getPercentileMillis(double percentile)
+    {
+        long c = count.sum();
+        if (c == 0) {
+            return 0;
+        }
+        long rank = (long)Math.ceil(c * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS_COUNT; ++i) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min((1L << i) / 1e3, getMaxMillis());
+            }
+        }
+        return getMaxMillis();
+    }
+
+    public String toJson()
+    {
+        return String.format(Locale.ROOT,
+                "{\"count\":%d,\"meanMillis\":%.3f,\"p50Millis\":%.3f,\"p95Millis\":%.3f,\"p99Millis\":%.3f,\"maxMillis\":%.3f}",
+                getCount(), getMeanMillis(), getPercentileMillis(50), getPercentileMillis(95), getPercentileMillis(99),
+                getMaxMillis());
+    }
+}
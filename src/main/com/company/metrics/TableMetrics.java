@@ -0,0 +1,241 @@
+package main.com.company.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Progress and latencies of one table. Updated concurrently by all workers filling chunks of the table.
+ */
+public class TableMetrics implements TableMetricsMXBean {
+    private final String tableName;
+
+    private final long rowsPlanned;
+
+    private final LongAdder rowsWritten = new LongAdder();
+
+    private final AtomicLong startNanos = new AtomicLong();
+
+    private volatile long lastWriteNanos;
+
+    private final LatencyHistogram statementLatency = new LatencyHistogram();
+
+    private final LatencyHistogram commitLatency = new LatencyHistogram();
+
+    private final LongAdder generationNanos = new LongAdder();
+
+    private final LongAdder generatorWaitNanos = new LongAdder();
+
+    private final LongAdder writerWaitNanos = new LongAdder();
+
+    private final Map<Integer, long[]> partitions = new ConcurrentSkipListMap<>();
+
+    public TableMetrics(String tableName, long rowsPlanned)
+    {
+        this.tableName = tableName;
+        this.rowsPlanned = rowsPlanned;
+    }
+
+    public String getTableName()
+    {
+        return tableName;
+    }
+
+    /**
+     * Starts the table clock on the first call, returns whether this call started it.
+     */
+    public boolean started()
+    {
+        return startNanos.compareAndSet(0, System.nanoTime());
+    }
+
+    public boolean isStarted()
+    {
+        return startNanos.get() != 0;
+    }
+
+    public void rowsWritten(long count)
+    {
+        rowsWritten.add(count);
+        lastWriteNanos = System.nanoTime();
+    }
+
+    public void statementExecuted(long nanos)
+    {
+        statementLatency.record(nanos);
+    }
+
+    public void committed(long nanos)
+    {
+        commitLatency.record(nanos);
+    }
+
+    /**
+     * Time a pipeline generator spent filling a batch of rows.
+     */
+    public void generated(long nanos)
+    {
+        generationNanos.add(nanos);
+    }
+
+    /**
+     * Time a pipeline generator was blocked because all batches were still queued or being sent.
+     */
+    public void generatorWaited(long nanos)
+    {
+        generatorWaitNanos.add(nanos);
+    }
+
+    /**
+     * Time a pipeline writer was blocked because no filled batch was ready.
+     */
+    public void writerWaited(long nanos)
+    {
+        writerWaitNanos.add(nanos);
+    }
+
+    /**
+     * Rows written to a partition of the table and the time it took from its first chunk to its last commit.
+     */
+    public void partitionLoaded(int partition, long rows, long nanos)
+    {
+        partitions.put(partition, new long[]{rows, nanos});
+    }
+
+    /**
+     * Loaded partitions by number, each one with its rows count and load nanoseconds.
+     */
+    public Map<Integer, long[]> getPartitions()
+    {
+        return Collections.unmodifiableMap(partitions);
+    }
+
+    public LatencyHistogram getStatementLatency()
+    {
+        return statementLatency;
+    }
+
+    public LatencyHistogram getCommitLatency()
+    {
+        return commitLatency;
+    }
+
+    public double getElapsedSeconds()
+    {
+        long start = startNanos.get();
+        if (start == 0) {
+            return 0;
+        }
+        long end = getRowsWritten() >= rowsPlanned ? lastWriteNanos : System.nanoTime();
+        return (end - start) / 1e9;
+    }
+
+    @Override
+    public long getRowsPlanned()
+    {
+        return rowsPlanned;
+    }
+
+    @Override
+    public long getRowsWritten()
+    {
+        return rowsWritten.sum();
+    }
+
+    @Override
+    public double getProgressPercentage()
+    {
+        return rowsPlanned == 0 ? 100 : getRowsWritten() * 100.0 / rowsPlanned;
+    }
+
+    @Override
+    public double getRowsPerSecond()
+    {
+        double elapsed = getElapsedSeconds();
+        return elapsed == 0 ? 0 : getRowsWritten() / elapsed;
+    }
+
+    @Override
+    public long getStatementsCount()
+    {
+        return statementLatency.getCount();
+    }
+
+    @Override
+    public double getStatementLatencyMeanMillis()
+    {
+        return statementLatency.getMeanMillis();
+    }
+
+    @Override
+    public double getStatementLatencyP99Millis()
+    {
+        return statementLatency.getPercentileMillis(99);
+    }
+
+    @Override
+    public long getCommitsCount()
+    {
+        return commitLatency.getCount();
+    }
+
+    @Override
+    public double getCommitLatencyMeanMillis()
+    {
+        return commitLatency.getMeanMillis();
+    }
+
+    @Override
+    public double getCommitLatencyP99Millis()
+    {
+        return commitLatency.getPercentileMillis(99);
+    }
+
+    @Override
+    public double getGenerationSeconds()
+    {
+        return generationNanos.sum() / 1e9;
+    }
+
+    @Override
+    public double getGeneratorWaitSeconds()
+    {
+        return generatorWaitNanos.sum() / 1e9;
+    }
+
+    @Override
+    public double getWriterWaitSeconds()
+    {
+        return writerWaitNanos.sum() / 1e9;
+    }
+
+    /**
+     * Stage of the pipeline the other one waits for: "generation" if writers mostly wait for rows, "io" if
+     * generators mostly wait for free batches, null if the table was not filled by a pipeline.
+     */
+    @Override
+    public String getLimitingStage()
+    {
+        return getLimitingStage(generatorWaitNanos.sum(), writerWaitNanos.sum());
+    }
+
+    static String getLimitingStage(long generatorWaitNanos, long writerWaitNanos)
+    {
+        if (generatorWaitNanos == 0 && writerWaitNanos == 0) {
+            return null;
+        }
+        return writerWaitNanos > generatorWaitNanos ? "generation" : "io";
+    }
+
+    long getGeneratorWaitNanos()
+    {
+        return generatorWaitNanos.sum();
+    }
+
+    long getWriterWaitNanos()
+    {
+        return writerWaitNanos.sum();
+    }
+}
@@ -0,0 +1,31 @@
+package main.com.company.metrics;
+
+public interface TableMetricsMXBean {
+    long getRowsPlanned();
+
+    long getRowsWritten();
+
+    double getProgressPercentage();
+
+    double getRowsPerSecond();
+
+    long getStatementsCount();
+
+    double getStatementLatencyMeanMillis();
+
+    double getStatementLatencyP99Millis();
+
+    long getCommitsCount();
+
+    double getCommitLatencyMeanMillis();
+
+    double getCommitLatencyP99Millis();
+
+    double getGenerationSeconds();
+
+    double getGeneratorWaitSeconds();
+
+    double getWriterWaitSeconds();
+
+    String getLimitingStage();
+}
@@ -0,0 +1,47 @@
+package main.com.company.models;
+
+public class Distribution {
+    private String name;
+
+    private double exponent;
+
+    private double mean;
+
+    private int max;
+
+    private double[] weights;
+
+    public Distribution(String distributionName, double exponent, double mean, int max, double[] weights)
+    {
+        name = distributionName;
+        this.exponent = exponent;
+        this.mean = mean;
+        this.max = max;
+        this.weights = weights;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public double getExponent()
+    {
+        return exponent;
+    }
+
+    public double getMean()
+    {
+        return mean;
+    }
+
+    public int getMax()
+    {
+        return max;
+    }
+
+    public double[] getWeights()
+    {
+        return weights;
+    }
+}
@@ -6,10 +6,18 @@ public class Reference {
 
     private String columnName;
 
+    private Distribution distribution;
+
     public Reference(String tableName, String columnName)
+    {
+        this(tableName, columnName, null);
+    }
+
+    public Reference(String tableName, String columnName, Distribution distribution)
     {
         this.tableName = tableName;
         this.columnName = columnName;
+        this.distribution = distribution;
     }
 
     public String getTableName()
@@ -21,4 +29,9 @@ public class Reference {
     {
         return columnName;
     }
+
+    public Distribution getDistribution()
+    {
+        return distribution;
+    }
 }
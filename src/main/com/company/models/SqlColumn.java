@@ -5,10 +5,18 @@ public abstract class SqlColumn {
 
     private String type;
 
+    private boolean unique;
+
     public SqlColumn(String columnName, String columnType)
+    {
+        this(columnName, columnType, false);
+    }
+
+    public SqlColumn(String columnName, String columnType, boolean unique)
     {
         name = columnName;
         type = columnType;
+        this.unique = unique;
     }
 
     public String getColumnName()
@@ -20,4 +28,9 @@ public abstract class SqlColumn {
     {
         return type;
     }
+
+    public boolean isUnique()
+    {
+        return unique;
+    }
 }
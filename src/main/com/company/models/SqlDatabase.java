@@ -1,16 +1,31 @@
 package main.com.company.models;
 
+import java.util.*;
+
 public class SqlDatabase {
     private String name;
 
     private final SqlTable[] tables;
 
+    private SqlTable[] generationOrder;
+
+    private Map<String, Integer> generationIndexes;
+
     public SqlDatabase(String databaseName, SqlTable[] databaseTables)
     {
         name = databaseName;
         tables = databaseTables;
     }
 
+    /**
+     * Database with a generation order computed beforehand, as returned by {@link #getGenerationOrder}.
+     */
+    public SqlDatabase(String databaseName, SqlTable[] databaseTables, SqlTable[] tablesGenerationOrder)
+    {
+        this(databaseName, databaseTables);
+        setGenerationOrder(tablesGenerationOrder);
+    }
+
     public String getDatabaseName()
     {
         return name;
@@ -20,4 +35,105 @@ public class SqlDatabase {
     {
         return tables;
     }
+
+    public SqlTable getTable(String tableName)
+    {
+        for (SqlTable t : tables) {
+            if (t.getTableName().equals(tableName)) {
+                return t;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Tables sorted so that every referenced table precedes tables referencing it. Tables which are parts of
+     * reference cycles cannot be sorted, so they follow all the others in their declaration order.
+     */
+    public SqlTable[] getGenerationOrder()
+    {
+        if (generationOrder != null) {
+            return generationOrder;
+        }
+        Map<String, Integer> parentsCount = new HashMap<>();
+        Map<String, List<SqlTable>> children = new HashMap<>();
+        for (SqlTable t : tables) {
+            parentsCount.put(t.getTableName(), 0);
+            children.put(t.getTableName(), new LinkedList<>());
+        }
+        for (SqlTable t : tables) {
+            Set<String> parents = new HashSet<>();
+            for (Reference r : t.getForeignKeys()) {
+                String parent = r.getTableName();
+                if (!parent.equals(t.getTableName()) && parents.add(parent)) {
+                    children.get(parent).add(t);
+                    parentsCount.put(t.getTableName(), parentsCount.get(t.getTableName()) + 1);
+                }
+            }
+        }
+        LinkedList<SqlTable> ready = new LinkedList<>();
+        for (SqlTable t : tables) {
+            if (parentsCount.get(t.getTableName()) == 0) {
+                ready.add(t);
+            }
+        }
+        List<SqlTable> result = new ArrayList<>(tables.length);
+        while (!ready.isEmpty()) {
+            SqlTable t = ready.removeFirst();
+            result.add(t);
+            for (SqlTable child : children.get(t.getTableName())) {
+                int count = parentsCount.get(child.getTableName()) - 1;
+                parentsCount.put(child.getTableName(), count);
+                if (count == 0) {
+                    ready.add(child);
+                }
+            }
+        }
+        for (SqlTable t : tables) {
+            if (parentsCount.get(t.getTableName()) > 0) {
+                result.add(t);
+            }
+        }
+        setGenerationOrder(result.toArray(new SqlTable[result.size()]));
+        return generationOrder;
+    }
+
+    private void setGenerationOrder(SqlTable[] order)
+    {
+        generationIndexes = new HashMap<>();
+        for (int i = 0; i < order.length; ++i) {
+            generationIndexes.put(order[i].getTableName(), i);
+        }
+        generationOrder = order;
+    }
+
+    /**
+     * @return references of the table to tables generated before it (or to the table itself)
+     */
+    public Reference[] getInlineReferences(SqlTable table)
+    {
+        return filterReferences(table, false);
+    }
+
+    /**
+     * @return references of the table to tables generated after it, which can be filled only after all tables
+     * have been generated
+     */
+    public Reference[] getDeferredReferences(SqlTable table)
+    {
+        return filterReferences(table, true);
+    }
+
+    private Reference[] filterReferences(SqlTable table, boolean deferred)
+    {
+        getGenerationOrder();
+        int tableIndex = generationIndexes.get(table.getTableName());
+        List<Reference> result = new ArrayList<>();
+        for (Reference r : table.getForeignKeys()) {
+            if ((generationIndexes.get(r.getTableName()) > tableIndex) == deferred) {
+                result.add(r);
+            }
+        }
+        return result.toArray(new Reference[result.size()]);
+    }
 }
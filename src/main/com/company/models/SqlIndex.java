@@ -0,0 +1,23 @@
+package main.com.company.models;
+
+public class SqlIndex {
+    private String name;
+
+    private String[] columnNames;
+
+    public SqlIndex(String indexName, String[] columnNames)
+    {
+        name = indexName;
+        this.columnNames = columnNames;
+    }
+
+    public String getIndexName()
+    {
+        return name;
+    }
+
+    public String[] getColumnNames()
+    {
+        return columnNames;
+    }
+}
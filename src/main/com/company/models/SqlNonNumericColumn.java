@@ -6,4 +6,9 @@ public class SqlNonNumericColumn extends SqlColumn {
     {
         super(columnName, columnType);
     }
+
+    public SqlNonNumericColumn(String columnName, String columnType, boolean unique)
+    {
+        super(columnName, columnType, unique);
+    }
 }
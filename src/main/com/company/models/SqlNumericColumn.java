@@ -6,11 +6,26 @@ public class SqlNumericColumn extends SqlColumn {
 
     private double dispersion;
 
+    private Distribution distribution;
+
     public SqlNumericColumn(String columnName, String columnType, double meanValue, double dispersionPercentage)
     {
-        super(columnName, columnType);
+        this(columnName, columnType, meanValue, dispersionPercentage, null);
+    }
+
+    public SqlNumericColumn(String columnName, String columnType, double meanValue, double dispersionPercentage,
+                            Distribution distribution)
+    {
+        this(columnName, columnType, meanValue, dispersionPercentage, distribution, false);
+    }
+
+    public SqlNumericColumn(String columnName, String columnType, double meanValue, double dispersionPercentage,
+                            Distribution distribution, boolean unique)
+    {
+        super(columnName, columnType, unique);
         mean = meanValue;
         dispersion = dispersionPercentage;
+        this.distribution = distribution;
     }
 
     public double getMean()
@@ -22,4 +37,9 @@ public class SqlNumericColumn extends SqlColumn {
     {
         return dispersion;
     }
+
+    public Distribution getDistribution()
+    {
+        return distribution;
+    }
 }
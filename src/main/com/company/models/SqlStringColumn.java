@@ -0,0 +1,39 @@
+package main.com.company.models;
+
+public class SqlStringColumn extends SqlNonNumericColumn {
+
+    private int minLength;
+
+    private int maxLength;
+
+    private int cardinality;
+
+    public SqlStringColumn(String columnName, String columnType, int minLength, int maxLength, int cardinality)
+    {
+        this(columnName, columnType, minLength, maxLength, cardinality, false);
+    }
+
+    public SqlStringColumn(String columnName, String columnType, int minLength, int maxLength, int cardinality,
+                           boolean unique)
+    {
+        super(columnName, columnType, unique);
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        this.cardinality = cardinality;
+    }
+
+    public int getMinLength()
+    {
+        return minLength;
+    }
+
+    public int getMaxLength()
+    {
+        return maxLength;
+    }
+
+    public int getCardinality()
+    {
+        return cardinality;
+    }
+}
@@ -11,13 +11,47 @@ public class SqlTable {
 
     private double dispersion;
 
-    public SqlTable(String tableName, SqlColumn[] tableColumns, Reference[] foreignKeys, int mean, double dispersionPercentage)
+    private int batchSize;
+
+    private final SqlIndex[] indexes;
+
+    private final boolean global;
+
+    private final int partitions;
+
+    private final String partitionMethod;
+
+    public SqlTable(String tableName, SqlColumn[] tableColumns, Reference[] foreignKeys, int mean, double dispersionPercentage,
+                    int batchSize)
+    {
+        this(tableName, tableColumns, foreignKeys, mean, dispersionPercentage, batchSize, new SqlIndex[0]);
+    }
+
+    public SqlTable(String tableName, SqlColumn[] tableColumns, Reference[] foreignKeys, int mean, double dispersionPercentage,
+                    int batchSize, SqlIndex[] indexes)
+    {
+        this(tableName, tableColumns, foreignKeys, mean, dispersionPercentage, batchSize, indexes, false);
+    }
+
+    public SqlTable(String tableName, SqlColumn[] tableColumns, Reference[] foreignKeys, int mean, double dispersionPercentage,
+                    int batchSize, SqlIndex[] indexes, boolean global)
+    {
+        this(tableName, tableColumns, foreignKeys, mean, dispersionPercentage, batchSize, indexes, global, 0, null);
+    }
+
+    public SqlTable(String tableName, SqlColumn[] tableColumns, Reference[] foreignKeys, int mean, double dispersionPercentage,
+                    int batchSize, SqlIndex[] indexes, boolean global, int partitions, String partitionMethod)
     {
         name = tableName;
         columns = tableColumns;
         this.mean = mean;
         dispersion = dispersionPercentage;
         refs = foreignKeys;
+        this.batchSize = batchSize;
+        this.indexes = indexes;
+        this.global = global;
+        this.partitions = partitions;
+        this.partitionMethod = partitionMethod;
     }
 
     public String getTableName()
@@ -44,4 +78,29 @@ public class SqlTable {
     {
         return refs;
     }
+
+    public int getBatchSize()
+    {
+        return batchSize;
+    }
+
+    public SqlIndex[] getIndexes()
+    {
+        return indexes;
+    }
+
+    public boolean isGlobal()
+    {
+        return global;
+    }
+
+    public int getPartitions()
+    {
+        return partitions;
+    }
+
+    public String getPartitionMethod()
+    {
+        return partitionMethod;
+    }
 }
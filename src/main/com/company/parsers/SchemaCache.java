@@ -0,0 +1,334 @@
+package main.com.company.parsers;
+
+import main.com.company.models.*;
+
+import javax.management.modelmbean.XMLParseException;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Binary cache of parsed and validated tables declarations. A declaration is cached in a file named after the
+ * SHA-256 hash of its contents, so an edited declaration misses the cache and is parsed again. The cached model
+ * keeps the generation order of the tables, so loading it involves no validation nor sorting.
+ * <p>
+ * Layout, big-endian: magic, database name, tables count, tables in declaration order, then the generation order as
+ * indexes of the tables. The magic changes with the layout, so caches written by other versions are parsed again.
+ */
+public final class SchemaCache {
+    private static final long MAGIC = 0x44474e5343484d31L;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final int MAX_COUNT = 1 << 24;
+
+    private static final byte NUMERIC_COLUMN = 1;
+
+    private static final byte STRING_COLUMN = 2;
+
+    private static final byte NON_NUMERIC_COLUMN = 3;
+
+    private SchemaCache()
+    {
+    }
+
+    /**
+     * Reads a count of elements which follow it, each taking at least one byte, so a damaged count fails here
+     * instead of allocating a huge array.
+     */
+    private static int readCount(DataInput in, int minimum) throws
+            IOException
+    {
+        int count = in.readInt();
+        if (count < minimum || count > MAX_COUNT) {
+            throw new IOException("count " + count + " is damaged");
+        }
+        return count;
+    }
+
+    private static String getKey(byte[] declaration)
+    {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        StringBuilder key = new StringBuilder();
+        for (byte b : digest.digest(declaration)) {
+            key.append(String.format("%02x", b));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Reads the declaration from the cache directory, parsing the file and caching the result if the directory has
+     * no copy of it. A cache which is damaged or cannot be read or written is reported and the declaration is parsed
+     * instead.
+     */
+    public static SqlDatabase fromFile(String filePath, File cacheDirectory) throws
+            IOException,
+            XMLParseException
+    {
+        byte[] declaration = Files.readAllBytes(Paths.get(filePath));
+        File cacheFile = new File(cacheDirectory, getKey(declaration) + ".schema");
+        if (cacheFile.isFile()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile),
+                    BUFFER_SIZE))) {
+                SqlDatabase database = readDatabase(in);
+                if (database != null) {
+                    return database;
+                }
+            } catch (EOFException e) {
+                System.out.println("Schema cache \"" + cacheFile + "\" is truncated");
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Schema cache \"" + cacheFile + "\" cannot be read: " + e);
+            }
+        }
+        System.out.println("Parsing file...");
+        SqlDatabase database = XmlParser.fromStream(new ByteArrayInputStream(declaration));
+        try {
+            write(database, cacheFile);
+        } catch (IOException e) {
+            System.out.println("Schema cache \"" + cacheFile + "\" cannot be written: " + e.getMessage());
+        }
+        return database;
+    }
+
+    /**
+     * Writes the cache next to its final place and moves it there, so concurrent runs never read a partial cache.
+     */
+    private static void write(SqlDatabase database, File cacheFile) throws
+            IOException
+    {
+        Path directory = cacheFile.getParentFile().toPath();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, cacheFile.getName(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(temporary.toFile()), BUFFER_SIZE))) {
+                writeDatabase(database, out);
+            }
+            Files.move(temporary, cacheFile.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static void writeNullableString(String value, DataOutput out) throws
+            IOException
+    {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInput in) throws
+            IOException
+    {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeDistribution(Distribution distribution, DataOutput out) throws
+            IOException
+    {
+        out.writeBoolean(distribution != null);
+        if (distribution == null) {
+            return;
+        }
+        out.writeUTF(distribution.getName());
+        out.writeDouble(distribution.getExponent());
+        out.writeDouble(distribution.getMean());
+        out.writeInt(distribution.getMax());
+        double[] weights = distribution.getWeights();
+        out.writeInt(weights == null ? -1 : weights.length);
+        if (weights != null) {
+            for (double w : weights) {
+                out.writeDouble(w);
+            }
+        }
+    }
+
+    private static Distribution readDistribution(DataInput in) throws
+            IOException
+    {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        String name = in.readUTF();
+        double exponent = in.readDouble();
+        double mean = in.readDouble();
+        int max = in.readInt();
+        int weightCount = readCount(in, -1);
+        double[] weights = weightCount < 0 ? null : new double[weightCount];
+        for (int i = 0; i < weightCount; ++i) {
+            weights[i] = in.readDouble();
+        }
+        return new Distribution(name, exponent, mean, max, weights);
+    }
+
+    private static void writeColumn(SqlColumn column, DataOutput out) throws
+            IOException
+    {
+        if (column instanceof SqlNumericColumn) {
+            SqlNumericColumn c = (SqlNumericColumn)column;
+            out.writeByte(NUMERIC_COLUMN);
+            out.writeUTF(c.getColumnName());
+            out.writeUTF(c.getColumnType());
+            out.writeBoolean(c.isUnique());
+            out.writeDouble(c.getMean());
+            out.writeDouble(c.getDispersionPercentage());
+            writeDistribution(c.getDistribution(), out);
+        } else if (column instanceof SqlStringColumn) {
+            SqlStringColumn c = (SqlStringColumn)column;
+            out.writeByte(STRING_COLUMN);
+            out.writeUTF(c.getColumnName());
+            out.writeUTF(c.getColumnType());
+            out.writeBoolean(c.isUnique());
+            out.writeInt(c.getMinLength());
+            out.writeInt(c.getMaxLength());
+            out.writeInt(c.getCardinality());
+        } else {
+            out.writeByte(NON_NUMERIC_COLUMN);
+            out.writeUTF(column.getColumnName());
+            out.writeUTF(column.getColumnType());
+            out.writeBoolean(column.isUnique());
+        }
+    }
+
+    private static SqlColumn readColumn(DataInput in) throws
+            IOException
+    {
+        byte kind = in.readByte();
+        String name = in.readUTF();
+        String type = in.readUTF();
+        boolean unique = in.readBoolean();
+        switch (kind) {
+            case NUMERIC_COLUMN:
+                double mean = in.readDouble();
+                double dispersion = in.readDouble();
+                return new SqlNumericColumn(name, type, mean, dispersion, readDistribution(in), unique);
+            case STRING_COLUMN:
+                int minLength = in.readInt();
+                int maxLength = in.readInt();
+                return new SqlStringColumn(name, type, minLength, maxLength, in.readInt(), unique);
+            case NON_NUMERIC_COLUMN:
+                return new SqlNonNumericColumn(name, type, unique);
+            default:
+                throw new IOException("unknown column kind " + kind);
+        }
+    }
+
+    private static void writeTable(SqlTable table, DataOutput out) throws
+            IOException
+    {
+        out.writeUTF(table.getTableName());
+        out.writeInt(table.getMean());
+        out.writeDouble(table.getDispersionPercentage());
+        out.writeInt(table.getBatchSize());
+        out.writeBoolean(table.isGlobal());
+        out.writeInt(table.getPartitions());
+        writeNullableString(table.getPartitionMethod(), out);
+        out.writeInt(table.getTableColumns().length);
+        for (SqlColumn c : table.getTableColumns()) {
+            writeColumn(c, out);
+        }
+        out.writeInt(table.getForeignKeys().length);
+        for (Reference r : table.getForeignKeys()) {
+            out.writeUTF(r.getTableName());
+            out.writeUTF(r.getColumnName());
+            writeDistribution(r.getDistribution(), out);
+        }
+        out.writeInt(table.getIndexes().length);
+        for (SqlIndex i : table.getIndexes()) {
+            out.writeUTF(i.getIndexName());
+            out.writeInt(i.getColumnNames().length);
+            for (String columnName : i.getColumnNames()) {
+                out.writeUTF(columnName);
+            }
+        }
+    }
+
+    private static SqlTable readTable(DataInput in) throws
+            IOException
+    {
+        String name = in.readUTF();
+        int mean = in.readInt();
+        double dispersion = in.readDouble();
+        int batchSize = in.readInt();
+        boolean global = in.readBoolean();
+        int partitions = in.readInt();
+        String partitionMethod = readNullableString(in);
+        SqlColumn[] columns = new SqlColumn[readCount(in, 0)];
+        for (int i = 0; i < columns.length; ++i) {
+            columns[i] = readColumn(in);
+        }
+        Reference[] refs = new Reference[readCount(in, 0)];
+        for (int i = 0; i < refs.length; ++i) {
+            String tableName = in.readUTF();
+            String columnName = in.readUTF();
+            refs[i] = new Reference(tableName, columnName, readDistribution(in));
+        }
+        SqlIndex[] indexes = new SqlIndex[readCount(in, 0)];
+        for (int i = 0; i < indexes.length; ++i) {
+            String indexName = in.readUTF();
+            String[] columnNames = new String[readCount(in, 0)];
+            for (int j = 0; j < columnNames.length; ++j) {
+                columnNames[j] = in.readUTF();
+            }
+            indexes[i] = new SqlIndex(indexName, columnNames);
+        }
+        return new SqlTable(name, columns, refs, mean, dispersion, batchSize, indexes, global, partitions,
+                partitionMethod);
+    }
+
+    private static void writeDatabase(SqlDatabase database, DataOutput out) throws
+            IOException
+    {
+        out.writeLong(MAGIC);
+        out.writeUTF(database.getDatabaseName());
+        SqlTable[] tables = database.getDatabaseTables();
+        Map<String, Integer> indexes = new HashMap<>();
+        out.writeInt(tables.length);
+        for (int i = 0; i < tables.length; ++i) {
+            writeTable(tables[i], out);
+            indexes.put(tables[i].getTableName(), i);
+        }
+        for (SqlTable t : database.getGenerationOrder()) {
+            out.writeInt(indexes.get(t.getTableName()));
+        }
+    }
+
+    /**
+     * @return the cached database, or null if the cache was written in another layout
+     */
+    private static SqlDatabase readDatabase(DataInput in) throws
+            IOException
+    {
+        if (in.readLong() != MAGIC) {
+            return null;
+        }
+        String name = in.readUTF();
+        SqlTable[] tables = new SqlTable[readCount(in, 0)];
+        for (int i = 0; i < tables.length; ++i) {
+            tables[i] = readTable(in);
+        }
+        SqlTable[] generationOrder = new SqlTable[tables.length];
+        for (int i = 0; i < tables.length; ++i) {
+            int index = in.readInt();
+            if (index < 0 || index >= tables.length) {
+                throw new IOException("generation order is damaged");
+            }
+            generationOrder[i] = tables[index];
+        }
+        return new SqlDatabase(name, tables, generationOrder);
+    }
+}
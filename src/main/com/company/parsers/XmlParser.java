@@ -1,13 +1,18 @@
 package main.com.company.parsers;
 
-import com.sun.org.apache.xerces.internal.parsers.DOMParser;
 import main.com.company.models.*;
-import org.w3c.dom.*;
 import org.xml.sax.SAXException;
 
 import javax.management.modelmbean.XMLParseException;
 import javax.xml.crypto.dsig.XMLSignatureException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
 import java.util.regex.Pattern;
 
@@ -38,167 +43,498 @@ public class XmlParser {
 
     private static final int DEFAULT_NUMERIC_COLUMN_DISPERSION_PERCENTAGE = 10;
 
-    private static SqlColumn[] getColumns(Element rootItem) throws
+    private static final int DEFAULT_STRING_COLUMN_LENGTH = 20;
+
+    private static final int MAX_STRING_COLUMN_LENGTH = 16383;
+
+    /**
+     * Bytes MySQL allows the columns of a row to take, whatever the storage engine.
+     */
+    private static final int MAX_ROW_SIZE = 65535;
+
+    private static final int BYTES_PER_CHARACTER = 4;
+
+    /**
+     * Shorter string columns are created as VARCHAR(100), see DataGenerator.
+     */
+    private static final int MIN_VARCHAR_LENGTH = 100;
+
+    private static final int INTEGER_SIZE = 4;
+
+    private static final Hashtable<String, Integer> COLUMN_SIZES = new Hashtable<String, Integer>() {
+        {
+            put("integer", INTEGER_SIZE);
+            put("double", 8);
+            put("boolean", 1);
+        }
+    };
+
+    private static final int INPUT_BUFFER_SIZE = 1 << 16;
+
+    private static final int MAX_UNIQUE_STRING_COLUMN_LENGTH = 768;
+
+    private static final int MAX_PARTITIONS = 8192;
+
+    private static final Set<String> PARTITION_METHODS = new HashSet<String>() {
+        {
+            add("range");
+            add("hash");
+        }
+    };
+
+    private static final Set<String> COLUMN_DISTRIBUTIONS = new HashSet<String>() {
+        {
+            add("gaussian");
+            add("exponential");
+            add("zipf");
+            add("weighted");
+        }
+    };
+
+    private static final Set<String> REFERENCE_DISTRIBUTIONS = new HashSet<String>() {
+        {
+            add("uniform");
+            add("exponential");
+            add("zipf");
+            add("weighted");
+        }
+    };
+
+    private static final double DEFAULT_ZIPF_EXPONENT = 1.0;
+
+    private static final int DEFAULT_ZIPF_MAX = 1000;
+
+    private static final double DEFAULT_EXPONENTIAL_MEAN_PERCENTAGE = 10.0;
+
+    private static final double DEFAULT_EXPONENTIAL_COLUMN_MEAN_VALUE = 10.0;
+
+    interface Attributes {
+        String get(String name);
+    }
+
+    /**
+     * Reads the distribution declared by a column or reference, returns null if there is none. For references the
+     * "mean" of an exponential distribution is a percentage of the parent table rows.
+     */
+    private static Distribution parseDistribution(Attributes attrs, String owner, Set<String> allowed) throws
             XMLParseException
     {
-        NodeList columnNodes = rootItem.getElementsByTagName("column");
-        int columnCount = columnNodes.getLength();
-        if (columnCount == 0) {
+        String name = attrs.get("distribution");
+        if (name == null) {
             return null;
         }
-        SqlColumn[] result = new SqlColumn[columnCount];
-        TreeSet<String> uniqueColumnNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
-        for (int j = 0; j < columnCount; ++j) {
-            if (columnNodes.item(j).getNodeType() != Node.ELEMENT_NODE) {
-                continue;
+        name = name.trim().toLowerCase();
+        if (!allowed.contains(name)) {
+            throw new XMLParseException(owner + ": distribution \"" + name + "\" is not recognized");
+        }
+        String value = attrs.get("exponent");
+        double exponent = value == null ? DEFAULT_ZIPF_EXPONENT : Double.valueOf(value);
+        if (!(exponent > 0)) {
+            throw new XMLParseException(owner + ": exponent must be positive");
+        }
+        value = attrs.get("mean");
+        double mean = value == null ? DEFAULT_EXPONENTIAL_MEAN_PERCENTAGE : Double.valueOf(value);
+        if (name.equals("exponential") && !(mean > 0)) {
+            throw new XMLParseException(owner + ": mean of exponential distribution must be positive");
+        }
+        value = attrs.get("max");
+        int max = value == null ? DEFAULT_ZIPF_MAX : Integer.valueOf(value);
+        if (max < 1) {
+            throw new XMLParseException(owner + ": max cannot be lesser then 1");
+        }
+        double[] weights = null;
+        if (name.equals("weighted")) {
+            value = attrs.get("weights");
+            if (value == null || value.trim().isEmpty()) {
+                throw new XMLParseException(owner + ": weighted distribution must have weights");
+            }
+            String[] items = value.split(",");
+            weights = new double[items.length];
+            double sum = 0;
+            for (int i = 0; i < items.length; ++i) {
+                weights[i] = Double.valueOf(items[i].trim());
+                if (!(weights[i] >= 0) || Double.isInfinite(weights[i])) {
+                    throw new XMLParseException(owner + ": weights cannot be negative");
+                }
+                sum += weights[i];
+            }
+            if (sum == 0) {
+                throw new XMLParseException(owner + ": weights cannot be all zero");
+            }
+        }
+        return new Distribution(name, exponent, mean, max, weights);
+    }
+
+    /**
+     * Table declaration being read. Declarations of columns and references are validated as soon as they are added,
+     * checks involving both of them are done when the table is built.
+     */
+    static class TableBuilder {
+        private final String name;
+
+        private final int mean;
+
+        private final double dispersion;
+
+        private final int batchSize;
+
+        private final boolean global;
+
+        private final int partitions;
+
+        private final String partitionMethod;
+
+        private final List<SqlColumn> columns = new ArrayList<>();
+
+        private final List<Reference> refs = new ArrayList<>();
+
+        private final List<SqlIndex> indexes = new ArrayList<>();
+
+        private final Set<String> indexNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+        private final Set<String> uniqueColumnNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+        private final Set<String> refsNames = new HashSet<>();
+
+        TableBuilder(Attributes attrs, Set<String> tableNames) throws
+                XMLParseException
+        {
+            name = attrs.get("name");
+            if (name == null) {
+                throw new XMLParseException("Table must have a name");
+            }
+            if (!CHECK_NAME.matcher(name).matches()) {
+                throw new XMLParseException(name + ": invalid table name");
+            }
+            if (!tableNames.add(name)) {
+                throw new XMLParseException("Tables must have unique names");
             }
-            NamedNodeMap attrs = columnNodes.item(j).getAttributes();
-            String name = attrs.getNamedItem("name").getNodeValue().trim();
+            try {
+                String value = attrs.get("mean");
+                mean = value == null ? DEFAULT_MEAN : Integer.valueOf(value);
+                value = attrs.get("dispersion");
+                dispersion = value == null ? DEFAULT_DISPERSION_PERCENTAGE : Double.valueOf(value);
+                value = attrs.get("batchSize");
+                batchSize = value == null ? 0 : Integer.valueOf(value);
+                if (value != null && batchSize < 1) {
+                    throw new XMLParseException(name + ": batch size cannot be lesser then 1");
+                }
+                value = attrs.get("global");
+                if (value != null && !value.trim().equalsIgnoreCase("true") && !value.trim().equalsIgnoreCase("false")) {
+                    throw new XMLParseException(name + ": global must be \"true\" or \"false\"");
+                }
+                global = value != null && Boolean.valueOf(value.trim());
+                value = attrs.get("partitions");
+                partitions = value == null ? 0 : Integer.valueOf(value);
+                if (value != null && (partitions < 1 || partitions > MAX_PARTITIONS)) {
+                    throw new XMLParseException(name + ": partitions count must belong to [1, " + MAX_PARTITIONS + "] interval");
+                }
+                value = attrs.get("partitionBy");
+                partitionMethod = value == null ? "range" : value.trim().toLowerCase();
+                if (!PARTITION_METHODS.contains(partitionMethod)) {
+                    throw new XMLParseException(name + ": partitioning \"" + partitionMethod + "\" is not recognized");
+                }
+                if (value != null && partitions == 0) {
+                    throw new XMLParseException(name + ": partitionBy needs partitions count");
+                }
+            } catch (NumberFormatException e) {
+                throw new XMLParseException("Cannot parse attributes of table \"" + name + "\"");
+            }
+            if (mean < 1) {
+                throw new XMLParseException(name + ": mean cannot be lesser then 1");
+            }
+            if (dispersion < 0 || dispersion > 100.0) {
+                throw new XMLParseException(name + ": dispersion value must belong to [0, 100] interval");
+            }
+        }
+
+        void addColumn(Attributes attrs) throws
+                XMLParseException
+        {
+            String name = attrs.get("name");
             if (name == null) {
                 throw new XMLParseException("Column must have a name");
             }
+            name = name.trim();
             if (!CHECK_NAME.matcher(name).matches()) {
                 throw new XMLParseException("Column name \"" + name + "\" is invalid");
             }
-            if (uniqueColumnNames.contains(name)) {
+            if (!uniqueColumnNames.add(name)) {
                 throw new XMLParseException("Column with name \"" + name + "\" has been defined multiple times");
-            } else {
-                uniqueColumnNames.add(name);
             }
-            String type = attrs.getNamedItem("type").getNodeValue().trim().toLowerCase();
+            String type = attrs.get("type");
             if (type == null) {
                 throw new XMLParseException("Column \"" + name + "\" must have a type");
             }
+            type = type.trim().toLowerCase();
             if (!ALLOWED_TYPES.contains(type)) {
                 throw new XMLParseException("Type of column \"" + name + "\" is not recognized");
             }
-            if (NUMERIC_TYPES.contains(type)) {
-                try {
-                    Node node = attrs.getNamedItem("mean");
-                    double mean = node == null ? DEFAULT_NUMERIC_COLUMN_MEAN_VALUE : Double.valueOf(node.getNodeValue());
-                    node = attrs.getNamedItem("dispersion");
-                    double dispersion = node == null ? DEFAULT_NUMERIC_COLUMN_DISPERSION_PERCENTAGE : Double.valueOf(node.getNodeValue());
-                    result[j] = new SqlNumericColumn(name, type, mean, dispersion);
-                } catch (NumberFormatException e) {
-                    throw new XMLParseException("Cannot parse attributes of column \"" + name + "\"");
+            if (!NUMERIC_TYPES.contains(type) && attrs.get("distribution") != null) {
+                throw new XMLParseException("Column \"" + name + "\": only numeric columns can have a distribution");
+            }
+            String unique = attrs.get("unique");
+            if (unique != null && !unique.trim().equalsIgnoreCase("true") && !unique.trim().equalsIgnoreCase("false")) {
+                throw new XMLParseException("Column \"" + name + "\": unique must be \"true\" or \"false\"");
+            }
+            boolean isUnique = unique != null && Boolean.valueOf(unique.trim());
+            if (isUnique && !type.equals("integer") && !type.equals("string")) {
+                throw new XMLParseException("Column \"" + name + "\": only integer and string columns can be unique");
+            }
+            if (isUnique && attrs.get("distribution") != null) {
+                throw new XMLParseException("Column \"" + name + "\": unique column cannot have a distribution");
+            }
+            try {
+                if (NUMERIC_TYPES.contains(type)) {
+                    Distribution distribution = parseDistribution(attrs, "Column \"" + name + "\"", COLUMN_DISTRIBUTIONS);
+                    boolean exponential = distribution != null && distribution.getName().equals("exponential");
+                    String value = attrs.get("mean");
+                    double mean = value != null ? Double.valueOf(value)
+                            : exponential ? DEFAULT_EXPONENTIAL_COLUMN_MEAN_VALUE : DEFAULT_NUMERIC_COLUMN_MEAN_VALUE;
+                    value = attrs.get("dispersion");
+                    double dispersion = value == null ? DEFAULT_NUMERIC_COLUMN_DISPERSION_PERCENTAGE : Double.valueOf(value);
+                    double deviation = Math.abs(mean * dispersion / 100.0);
+                    // weights split [mean - deviation, mean + deviation], the default mean 0 would make every value 0
+                    if (distribution != null && distribution.getName().equals("weighted") && !(deviation > 0)) {
+                        throw new XMLParseException("Column \"" + name + "\": weighted distribution needs non-zero "
+                                + "mean and dispersion");
+                    }
+                    if (isUnique && (Math.ceil(mean - deviation) < Integer.MIN_VALUE
+                            || Math.floor(mean + deviation) > Integer.MAX_VALUE
+                            || Math.ceil(mean - deviation) > Math.floor(mean + deviation))) {
+                        throw new XMLParseException("Column \"" + name + "\": values range of unique column must contain "
+                                + "integers and fit into integer type");
+                    }
+                    columns.add(new SqlNumericColumn(name, type, mean, dispersion, distribution, isUnique));
+                } else if (type.equals("string")) {
+                    String value = attrs.get("minLength");
+                    int minLength = value == null ? DEFAULT_STRING_COLUMN_LENGTH : Integer.valueOf(value);
+                    value = attrs.get("maxLength");
+                    int maxLength = value == null ? Math.max(minLength, DEFAULT_STRING_COLUMN_LENGTH) : Integer.valueOf(value);
+                    value = attrs.get("cardinality");
+                    int cardinality = value == null ? 0 : Integer.valueOf(value);
+                    if (minLength < 0 || maxLength < minLength || maxLength > MAX_STRING_COLUMN_LENGTH) {
+                        throw new XMLParseException("Column \"" + name + "\": length bounds must satisfy 0 <= minLength <= maxLength <= "
+                                + MAX_STRING_COLUMN_LENGTH);
+                    }
+                    if (cardinality < 0) {
+                        throw new XMLParseException("Column \"" + name + "\": cardinality cannot be negative");
+                    }
+                    if (isUnique && cardinality > 0) {
+                        throw new XMLParseException("Column \"" + name + "\": unique column cannot have a cardinality");
+                    }
+                    if (isUnique && maxLength > MAX_UNIQUE_STRING_COLUMN_LENGTH) {
+                        throw new XMLParseException("Column \"" + name + "\": unique column cannot be longer then "
+                                + MAX_UNIQUE_STRING_COLUMN_LENGTH);
+                    }
+                    columns.add(new SqlStringColumn(name, type, minLength, maxLength, cardinality, isUnique));
+                } else {
+                    columns.add(new SqlNonNumericColumn(name, type));
                 }
-            } else {
-                result[j] = new SqlNonNumericColumn(name, type);
+            } catch (NumberFormatException e) {
+                throw new XMLParseException("Cannot parse attributes of column \"" + name + "\"");
             }
         }
-        return result;
-    }
 
-    private static Reference[] getTableReferences(Element rootItem, Set<String> columnNames) throws
-            XMLParseException
-    {
-        NodeList l = rootItem.getElementsByTagName("reference");
-        if (l == null) {
-            return null;
-        }
-        int length = l.getLength();
-        LinkedList<Reference> refs = new LinkedList<>();
-        Set<String> refsNames = new HashSet<>();
-        for (int i = 0; i < length; i++) {
-            Node n = l.item(i);
-            if (n.getNodeType() != Node.ELEMENT_NODE) {
-                continue;
-            }
-            NamedNodeMap attrs = n.getAttributes();
-            Node temp = attrs.getNamedItem("table");
-            if (temp == null) {
+        void addReference(Attributes attrs) throws
+                XMLParseException
+        {
+            String tableName = attrs.get("table");
+            if (tableName == null) {
                 throw new XMLParseException("Reference to unnamed table");
             }
-            String tableName = temp.getNodeValue();
-            temp = attrs.getNamedItem("columnName");
-            String columnName = temp.getNodeValue();
-            if (columnNames.contains(columnName) || refsNames.contains(columnName)) {
+            String columnName = attrs.get("columnName");
+            if (columnName == null) {
+                throw new XMLParseException("Referencing from unnamed column");
+            }
+            if (!refsNames.add(columnName)) {
                 throw new XMLParseException("Referencing column with name \"" + columnName + "\" already uses by another column or reference");
             }
-            refsNames.add(columnName);
-            if (temp == null) {
-                throw new XMLParseException("Referencing from unnamed column");
+            Distribution distribution;
+            try {
+                distribution = parseDistribution(attrs, "Reference \"" + columnName + "\"", REFERENCE_DISTRIBUTIONS);
+            } catch (NumberFormatException e) {
+                throw new XMLParseException("Cannot parse attributes of reference \"" + columnName + "\"");
             }
-            refs.add(new Reference(tableName, temp.getNodeValue()));
+            if (distribution != null && distribution.getName().equals("exponential")
+                    && !(distribution.getMean() > 0 && distribution.getMean() <= 100)) {
+                throw new XMLParseException("Reference \"" + columnName + "\": mean must belong to (0, 100] interval");
+            }
+            refs.add(new Reference(tableName, columnName, distribution));
         }
-        Reference[] result = new Reference[refs.size()];
-        refs.toArray(result);
-        return result;
-    }
 
-    public static SqlDatabase fromFile(String filePath) throws
-            IOException,
-            SAXException,
-            XMLSignatureException,
-            XMLParseException
-    {
-        System.out.println("Parsing file...");
-        DOMParser parser = new DOMParser();
-        parser.parse(filePath);
-        Document doc = parser.getDocument();
-        Element root = doc.getDocumentElement();
-        NamedNodeMap databaseAttrs = root.getAttributes();
-        Node databaseName = databaseAttrs.getNamedItem("name");
-        if (databaseAttrs == null) {
-            throw new XMLParseException("Database must have name");
-        }
-        NodeList childNodes = root.getElementsByTagName("table");
-        TreeSet<String> tableNames = new TreeSet<>();
-        int tablesCount = childNodes.getLength();
-        SqlTable[] tables = new SqlTable[tablesCount];
-        for (int i = 0; i < tablesCount; ++i) {
-            Element item = (Element)(childNodes.item(i));
-            NamedNodeMap attrs = item.getAttributes();
-            Node nameAttr = attrs.getNamedItem("name");
-            if (nameAttr == null) {
-                throw new XMLParseException("Table must have a name");
+        void addIndex(Attributes attrs) throws
+                XMLParseException
+        {
+            String value = attrs.get("columns");
+            if (value == null || value.trim().isEmpty()) {
+                throw new XMLParseException("Index of table \"" + name + "\" must have columns");
             }
-            String name = nameAttr.getNodeValue();
-            if (!CHECK_NAME.matcher(name).matches()) {
-                throw new XMLParseException(name + ": invalid table name");
+            String[] columnNames = value.split(",");
+            for (int i = 0; i < columnNames.length; ++i) {
+                columnNames[i] = columnNames[i].trim();
             }
-            if (tableNames.contains(name)) {
-                throw new XMLParseException("Tables must have unique names");
-            } else {
-                tableNames.add(name);
+            String indexName = attrs.get("name");
+            indexName = indexName == null ? name + "_" + String.join("_", columnNames) + "_idx" : indexName.trim();
+            if (!CHECK_NAME.matcher(indexName).matches()) {
+                throw new XMLParseException("Index name \"" + indexName + "\" is invalid");
             }
-            Node meanAttr = attrs.getNamedItem("mean");
-            int mean = meanAttr == null ? DEFAULT_MEAN : Integer.valueOf(meanAttr.getNodeValue());
-            if (mean < 1) {
-                throw new XMLParseException(name + ": mean cannot be lesser then 1");
+            if (!indexNames.add(indexName)) {
+                throw new XMLParseException("Index with name \"" + indexName + "\" has been defined multiple times");
             }
-            Node dispAttr = attrs.getNamedItem("dispersion");
-            double dispersion = dispAttr == null ? DEFAULT_DISPERSION_PERCENTAGE : Double.valueOf(dispAttr.getNodeValue());
-            if (dispersion < 0 || dispersion > 100.0) {
-                throw new XMLParseException(name + ": dispersion value must belong to [0, 100] interval");
+            indexes.add(new SqlIndex(indexName, columnNames));
+        }
+
+        /**
+         * Bytes a row of the table takes at most, with strings stored as utf8mb4 VARCHAR columns.
+         */
+        private long getRowSize()
+        {
+            long size = INTEGER_SIZE;
+            for (SqlColumn c : columns) {
+                if (c instanceof SqlStringColumn) {
+                    long bytes = (long)Math.max(((SqlStringColumn)c).getMaxLength(), MIN_VARCHAR_LENGTH)
+                            * BYTES_PER_CHARACTER;
+                    size += bytes + (bytes > 255 ? 2 : 1);
+                } else {
+                    size += COLUMN_SIZES.get(c.getColumnType());
+                }
+            }
+            // references are nullable integers, each one with a bit of the null flags
+            return size + (long)refs.size() * INTEGER_SIZE + (refs.size() + 7) / 8;
+        }
+
+        SqlTable build() throws
+                XMLParseException
+        {
+            for (SqlColumn c : columns) {
+                if (refsNames.contains(c.getColumnName())) {
+                    throw new XMLParseException("Referencing column with name \"" + c.getColumnName() + "\" already uses by another column or reference");
+                }
             }
-            SqlColumn[] columns = getColumns(item);
-            Set<String> columnNames = new HashSet<String>() {
-                {
-                    for (SqlColumn c : columns) {
-                        add(c.getColumnName());
+            for (SqlIndex i : indexes) {
+                for (String columnName : i.getColumnNames()) {
+                    if (!columnName.equalsIgnoreCase("id") && !uniqueColumnNames.contains(columnName)
+                            && !refsNames.contains(columnName)) {
+                        throw new XMLParseException("Index \"" + i.getIndexName() + "\" uses unknown column \"" + columnName + "\"");
                     }
                 }
-            };
-             Reference[] refs = getTableReferences(item, columnNames);
-            if (columns == null && refs == null) {
+            }
+            for (SqlColumn c : columns) {
+                if (partitions > 0 && c.isUnique()) {
+                    throw new XMLParseException("Column \"" + c.getColumnName() + "\": partitioned table cannot have "
+                            + "unique columns");
+                }
+            }
+            if (columns.isEmpty() && refs.isEmpty()) {
                 throw new XMLParseException("Table \"" + name + "\" has no columns nor references to another tables");
             }
-            tables[i] = new SqlTable(name, columns, refs, mean, dispersion);
+            long rowSize = getRowSize();
+            if (rowSize > MAX_ROW_SIZE) {
+                throw new XMLParseException("Table \"" + name + "\": rows can take " + rowSize + " bytes, more then the "
+                        + MAX_ROW_SIZE + " bytes allowed by MySQL");
+            }
+            return new SqlTable(name, columns.toArray(new SqlColumn[columns.size()]), refs.toArray(new Reference[refs.size()]),
+                    mean, dispersion, batchSize, indexes.toArray(new SqlIndex[indexes.size()]), global,
+                    partitions, partitions == 0 ? null : partitionMethod);
+        }
+    }
+
+    static SqlDatabase buildDatabase(String databaseName, List<SqlTable> tables, Set<String> tableNames) throws
+            XMLParseException
+    {
+        if (databaseName == null) {
+            throw new XMLParseException("Database must have name");
         }
+        Set<String> globalTableNames = new HashSet<>();
         for (SqlTable t : tables) {
-            Reference[] refs = t.getForeignKeys();
-            if (refs == null) {
-                continue;
+            if (t.isGlobal()) {
+                globalTableNames.add(t.getTableName());
             }
+        }
+        for (SqlTable t : tables) {
+            Reference[] refs = t.getForeignKeys();
             String tableName = t.getTableName();
             for (Reference ref : refs) {
                 String refTableName = ref.getTableName();
                 if (!tableNames.contains(refTableName)) {
                     throw new XMLParseException("Table \"" + tableName + "\" references to non-existing table \"" + refTableName + "\"");
                 }
+                if (t.isGlobal() && !globalTableNames.contains(refTableName)) {
+                    throw new XMLParseException("Global table \"" + tableName + "\" can reference only global tables");
+                }
+            }
+        }
+        return new SqlDatabase(databaseName, tables.toArray(new SqlTable[tables.size()]));
+    }
+
+    private static SqlDatabase parse(XMLStreamReader reader) throws
+            XMLStreamException,
+            XMLParseException
+    {
+        Attributes attrs = (name) -> reader.getAttributeValue(null, name);
+        String databaseName = null;
+        List<SqlTable> tables = new ArrayList<>();
+        Set<String> tableNames = new TreeSet<>();
+        TableBuilder table = null;
+        int depth = 0;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String element = reader.getLocalName();
+                if (++depth == 1) {
+                    databaseName = attrs.get("name");
+                } else if (element.equals("table")) {
+                    table = new TableBuilder(attrs, tableNames);
+                } else if (table != null && element.equals("column")) {
+                    table.addColumn(attrs);
+                } else if (table != null && element.equals("reference")) {
+                    table.addReference(attrs);
+                } else if (table != null && element.equals("index")) {
+                    table.addIndex(attrs);
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                --depth;
+                if (table != null && reader.getLocalName().equals("table")) {
+                    tables.add(table.build());
+                    table = null;
+                }
+            }
+        }
+        return buildDatabase(databaseName, tables, tableNames);
+    }
+
+    public static SqlDatabase fromStream(InputStream in) throws
+            XMLParseException
+    {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        XMLStreamReader reader = null;
+        try {
+            reader = factory.createXMLStreamReader(in);
+            return parse(reader);
+        } catch (XMLStreamException e) {
+            throw new XMLParseException(e, "Cannot parse tables declaration: " + e.getMessage());
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                }
             }
         }
-        return new SqlDatabase(databaseName.getNodeValue(), tables);
+    }
+
+    public static SqlDatabase fromFile(String filePath) throws
+            IOException,
+            SAXException,
+            XMLSignatureException,
+            XMLParseException
+    {
+        System.out.println("Parsing file...");
+        try (InputStream in = new BufferedInputStream(new FileInputStream(filePath), INPUT_BUFFER_SIZE)) {
+            return fromStream(in);
+        }
     }
 }
@@ -0,0 +1,426 @@
+package main.com.company.generators;
+
+import main.com.company.metrics.TableMetrics;
+import main.com.company.models.Reference;
+import main.com.company.models.SqlDatabase;
+import main.com.company.models.SqlNumericColumn;
+import main.com.company.models.SqlStringColumn;
+import main.com.company.models.SqlTable;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DataGeneratorTest {
+    private static final long SEED = 42;
+
+    private final SqlTable parents = Tables.table("parents", 10);
+
+    private final Reference[] links = {new Reference("parents", "parent_id")};
+
+    private final SqlTable children = Tables.table("children", 50, links);
+
+    private final SqlTable items = Tables.table("items", 30, new SqlNumericColumn("amount", "integer", 1000, 20),
+            new SqlStringColumn("code", "string", 5, 10, 0));
+
+    private final Map<String, Integer> rowCounts = Tables.rowCounts(parents, children, items);
+
+    private static final String SHOP = "<database name=\"generator\">"
+            + "<table name=\"orders\" mean=\"60\" dispersion=\"0\">"
+            + "<column name=\"total\" type=\"integer\" mean=\"100\" deviation=\"20\"/>"
+            + "<reference table=\"customers\" columnName=\"customer_id\"/><index columns=\"customer_id\"/></table>"
+            + "<table name=\"customers\" mean=\"25\" dispersion=\"0\">"
+            + "<column name=\"name\" type=\"string\"/></table>"
+            + "</database>";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private H2Connection h2;
+
+    private Connection connection;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        h2 = H2Connection.open("generator");
+        connection = h2.get();
+        try (Statement s = connection.createStatement()) {
+            s.executeUpdate(DataGenerator.getCreateTableQuery(parents));
+            s.executeUpdate(DataGenerator.getCreateTableQuery(children));
+            s.executeUpdate(DataGenerator.getCreateTableQuery(items));
+            for (int id = 1; id <= children.getMean(); ++id) {
+                s.executeUpdate("INSERT INTO children (id) VALUES (" + id + ")");
+            }
+        }
+        connection.commit();
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        h2.close();
+    }
+
+    private List<Integer> getColumn(String query) throws
+            SQLException
+    {
+        List<Integer> values = new ArrayList<>();
+        try (Statement s = connection.createStatement(); ResultSet r = s.executeQuery(query)) {
+            while (r.next()) {
+                values.add((Integer)r.getObject(1));
+            }
+        }
+        return values;
+    }
+
+    private boolean link() throws
+            SQLException
+    {
+        return DataGenerator.fillForeignKeys(connection, children, links, rowCounts, 0, 7, 6,
+                Randoms.forRows(SEED, "children"), Shard.WHOLE);
+    }
+
+    private void assertLinked(List<Integer> parentIds) throws
+            SQLException
+    {
+        assertEquals(parentIds, getColumn("SELECT parent_id FROM children ORDER BY id"));
+        assertEquals(0, h2.getOpenStatements());
+        assertTrue(getColumn("SELECT 1 FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'children_links'").isEmpty());
+    }
+
+    @Test
+    public void linksEveryRowToParent() throws Exception
+    {
+        assertTrue(link());
+        connection.commit();
+        List<Integer> parentIds = getColumn("SELECT parent_id FROM children ORDER BY id");
+        assertEquals(children.getMean(), parentIds.size());
+        for (Integer id : parentIds) {
+            assertTrue(String.valueOf(id), id != null && id >= 1 && id <= parents.getMean());
+        }
+        assertLinked(parentIds);
+    }
+
+    @Test
+    public void retriesLinksAfterFailure() throws Exception
+    {
+        assertTrue(link());
+        List<Integer> parentIds = getColumn("SELECT parent_id FROM children ORDER BY id");
+        connection.rollback();
+        for (String failing : new String[]{"INSERT INTO children_links", "UPDATE"}) {
+            h2.failOnce(failing);
+            try {
+                link();
+                fail(failing + " did not fail");
+            } catch (SQLException e) {
+                assertFalse(e.getMessage(), e.getMessage().contains("already exists"));
+                connection.rollback();
+            }
+            assertEquals(0, h2.getOpenStatements());
+            assertTrue(link());
+            connection.commit();
+            assertLinked(parentIds);
+            try (Statement s = connection.createStatement()) {
+                s.executeUpdate("UPDATE children SET parent_id = NULL");
+            }
+            connection.commit();
+        }
+    }
+
+    @Test
+    public void replacesStageTableLeftByFailedAttempt() throws Exception
+    {
+        try (Statement s = connection.createStatement()) {
+            s.executeUpdate("CREATE TEMPORARY TABLE children_links(id INTEGER)");
+        }
+        assertTrue(link());
+        connection.commit();
+        assertEquals(children.getMean(), getColumn("SELECT parent_id FROM children WHERE parent_id IS NOT NULL").size());
+        assertEquals(0, h2.getOpenStatements());
+    }
+
+    private boolean load(TableMetrics metrics) throws Exception
+    {
+        Properties props = new Properties();
+        props.setProperty("loadMode", "infile");
+        props.setProperty("spillDirectory", folder.getRoot().getPath());
+        GenerationOptions options = GenerationOptions.fromProperties(props);
+        TablePlan plan = DataGenerator.compileTable(items, new Reference[0], rowCounts, SEED);
+        return DataGenerator.loadTable(connection, items, new Reference[0], plan, 0, items.getMean(), options,
+                Randoms.forRows(SEED, "items"), metrics);
+    }
+
+    private void assertLoaded(TableMetrics metrics, int rowCount) throws Exception
+    {
+        // rows are counted by the transaction of the chunk once committed
+        assertEquals(0, metrics.getRowsWritten());
+        assertEquals(rowCount, getColumn("SELECT id FROM items").size());
+        assertEquals(0, h2.getOpenStatements());
+        assertEquals(0, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void loadsChunkFromSpillFile() throws Exception
+    {
+        TableMetrics metrics = new TableMetrics("items", items.getMean());
+        assertTrue(load(metrics));
+        assertLoaded(metrics, items.getMean());
+        List<Integer> ids = getColumn("SELECT id FROM items WHERE amount > 0 AND LENGTH(code) BETWEEN 5 AND 10"
+                + " ORDER BY id");
+        for (int i = 0; i < ids.size(); ++i) {
+            assertEquals(i + 1, (int)ids.get(i));
+        }
+        assertEquals(items.getMean(), ids.size());
+    }
+
+    @Test
+    public void failsChunkLosingRows() throws Exception
+    {
+        try (Statement s = connection.createStatement()) {
+            s.executeUpdate("INSERT INTO items VALUES (5, 0, 'taken')");
+        }
+        TableMetrics metrics = new TableMetrics("items", items.getMean());
+        assertFalse(load(metrics));
+        assertLoaded(metrics, items.getMean());
+    }
+
+    @Test
+    public void closesStatementOfFailedLoad() throws Exception
+    {
+        h2.failOnce("LOAD DATA");
+        TableMetrics metrics = new TableMetrics("items", items.getMean());
+        assertFalse(load(metrics));
+        assertLoaded(metrics, 0);
+    }
+
+    @Test
+    public void countsRowsOnceCommitted() throws Exception
+    {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:transactions;MODE=MySQL");
+        int rows = items.getMean();
+        TableMetrics metrics = new TableMetrics("items", rows);
+        TablePlan plan = DataGenerator.compileTable(items, new Reference[0], rowCounts, SEED);
+        DataGenerator.TableJob fill = c -> DataGenerator.fillTable(c, items, new Reference[0], plan, 0, rows, 7,
+                Randoms.forRows(SEED, "items"), metrics);
+        DataGenerator.TableJob failing = c -> {
+            fill.run(c);
+            return false;
+        };
+        DataGenerator.TableJob throwing = c -> {
+            fill.run(c);
+            throw new SQLException("connection lost");
+        };
+        try (ConnectionPool pool = new ConnectionPool(ds, 1, DataGenerator.getCreateTableQuery(items))) {
+            for (DataGenerator.TableJob job : new DataGenerator.TableJob[]{failing, throwing}) {
+                assertFalse(DataGenerator.runInTransaction(pool, items, metrics, rows, job));
+                assertEquals(0, metrics.getRowsWritten());
+            }
+            assertTrue(DataGenerator.runInTransaction(pool, items, metrics, rows, fill));
+            assertEquals(rows, metrics.getRowsWritten());
+            assertEquals(1, metrics.getCommitsCount());
+            assertTrue(DataGenerator.runInTransaction(pool, items, metrics, c -> {
+                try (Statement s = c.createStatement(); ResultSet r = s.executeQuery("SELECT COUNT(*) FROM items")) {
+                    return r.next() && r.getInt(1) == rows;
+                }
+            }));
+            assertEquals(rows, metrics.getRowsWritten());
+        }
+    }
+
+    @Test
+    public void dumpsFilesInLoadingOrder() throws Exception
+    {
+        File props = folder.newFile("dump.properties");
+        Files.write(props.toPath(), "compressDump=false\nbatchSize=4\n".getBytes(StandardCharsets.UTF_8));
+        File declaration = folder.newFile("shop.xml");
+        Files.write(declaration.toPath(), ("<database name=\"shop\">"
+                + "<table name=\"orders\" mean=\"20\" dispersion=\"0\">"
+                + "<reference table=\"customers\" columnName=\"customer_id\"/><index columns=\"customer_id\"/></table>"
+                + "<table name=\"customers\" mean=\"5\" dispersion=\"0\">"
+                + "<column name=\"name\" type=\"string\"/></table>"
+                + "</database>").getBytes(StandardCharsets.UTF_8));
+        File directory = new File(folder.getRoot(), "dump");
+        assertTrue(DataGenerator.dumpDatabase(props.getPath(), declaration.getPath(), directory.getPath(), SEED));
+        List<String> files = Files.readAllLines(new File(directory, "shop.manifest").toPath());
+        assertEquals(Arrays.asList("shop.sql", "customers.sql", "orders.sql", "shop_constraints.sql"), files);
+        for (String f : files) {
+            List<String> lines = Files.readAllLines(new File(directory, f).toPath());
+            assertTrue(f, lines.contains("USE shop;"));
+            if (!f.equals("shop.sql")) {
+                assertEquals(f, "USE shop;", lines.get(0));
+            }
+        }
+        List<String> constraints = Files.readAllLines(new File(directory, "shop_constraints.sql").toPath());
+        assertEquals(3, constraints.size());
+        assertTrue(constraints.get(2), constraints.get(2).contains("FOREIGN KEY (customer_id) REFERENCES customers"));
+    }
+
+    private static GenerationOptions options(String... properties) throws Exception
+    {
+        Properties props = new Properties();
+        props.setProperty("progressInterval", "0");
+        for (String p : properties) {
+            String[] pair = p.split("=");
+            props.setProperty(pair[0], pair[1]);
+        }
+        return GenerationOptions.fromProperties(props);
+    }
+
+    /**
+     * Creates the tables of the shop declaration as generateDatabase does, with the checkpoint if the options ask
+     * for it.
+     */
+    private static Checkpoint createShop(Connection c, SqlDatabase shop, GenerationOptions options) throws Exception
+    {
+        for (SqlTable t : shop.getGenerationOrder()) {
+            DataGenerator.createTableScheme(c, t, t.getMean(), SEED, options.isFastLoad());
+        }
+        Checkpoint checkpoint = options.isCheckpoint()
+                ? Checkpoint.create(c, SEED, options.getChunkSize(), options.getScale())
+                : Checkpoint.disabled(SEED, options.getChunkSize());
+        c.commit();
+        return checkpoint;
+    }
+
+    private static List<String> dump(Connection c, String table) throws
+            SQLException
+    {
+        List<String> rows = new ArrayList<>();
+        try (Statement s = c.createStatement(); ResultSet r = s.executeQuery("SELECT * FROM " + table + " ORDER BY id")) {
+            int columnCount = r.getMetaData().getColumnCount();
+            while (r.next()) {
+                StringBuilder row = new StringBuilder();
+                for (int i = 1; i <= columnCount; ++i) {
+                    row.append(r.getString(i)).append('|');
+                }
+                rows.add(row.toString());
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Names of the indexes and constraints of the table.
+     */
+    private Set<String> getSchemaObjects(String table) throws
+            SQLException
+    {
+        Set<String> names = new TreeSet<>();
+        try (Statement s = connection.createStatement();
+             ResultSet r = s.executeQuery("SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_NAME = '"
+                     + table + "' UNION SELECT CONSTRAINT_NAME FROM INFORMATION_SCHEMA.CONSTRAINTS WHERE "
+                     + "TABLE_NAME = '" + table + "'")) {
+            while (r.next()) {
+                names.add(r.getString(1));
+            }
+        }
+        return names;
+    }
+
+    @Test
+    public void resumesAfterFailedChunk() throws Exception
+    {
+        SqlDatabase shop = Tables.parse(SHOP);
+        GenerationOptions options = options("checkpoint=true", "chunkSize=10", "batchSize=4");
+        createShop(connection, shop, options);
+        h2.failOnce("INSERT INTO orders");
+        assertFalse(DataGenerator.generateTables(h2.getDataSource(), shop, options, SEED, Checkpoint.load(connection)));
+        assertEquals(50, dump(connection, "orders").size());
+        assertTrue(DataGenerator.generateTables(h2.getDataSource(), shop, options, SEED, Checkpoint.load(connection)));
+        H2Connection uninterrupted = H2Connection.open("uninterrupted");
+        try {
+            Connection c = uninterrupted.get();
+            Checkpoint checkpoint = createShop(c, shop, options);
+            assertTrue(DataGenerator.generateTables(uninterrupted.getDataSource(), shop, options, SEED, checkpoint));
+            for (String table : new String[]{"customers", "orders"}) {
+                assertEquals(table, dump(c, table), dump(connection, table));
+            }
+        } finally {
+            uninterrupted.close();
+        }
+        assertEquals(0, getColumn("SELECT id FROM orders WHERE customer_id IS NULL").size());
+    }
+
+    @Test
+    public void skipsConstraintAddedBeforeCrash() throws Exception
+    {
+        SqlDatabase shop = Tables.parse(SHOP);
+        GenerationOptions options = options("checkpoint=true");
+        createShop(connection, shop, options);
+        h2.failOnce("ALTER TABLE orders");
+        assertFalse(DataGenerator.generateTables(h2.getDataSource(), shop, options, SEED, Checkpoint.load(connection)));
+        assertFalse(getSchemaObjects("orders").contains("orders_customer_id_fk"));
+        // MySQL commits the statement on its own, the run may stop before the checkpoint records it
+        try (Statement s = connection.createStatement()) {
+            s.executeUpdate("ALTER TABLE orders ADD CONSTRAINT orders_customer_id_fk FOREIGN KEY (customer_id) "
+                    + "REFERENCES customers(id)");
+        }
+        connection.commit();
+        assertTrue(DataGenerator.generateTables(h2.getDataSource(), shop, options, SEED, Checkpoint.load(connection)));
+        assertTrue(getSchemaObjects("orders").contains("orders_customer_id_fk"));
+        assertEquals(60, dump(connection, "orders").size());
+    }
+
+    @Test
+    public void fastLoadDefersIndexesToSchemaCompletion() throws Exception
+    {
+        SqlDatabase shop = Tables.parse(SHOP);
+        GenerationOptions options = options("fastLoad=true", "chunkSize=20");
+        Checkpoint checkpoint = createShop(connection, shop, options);
+        assertFalse(getSchemaObjects("orders").contains("orders_customer_id_idx"));
+        assertTrue(DataGenerator.generateTables(h2.getDataSource(), shop, options, SEED, checkpoint));
+        Set<String> names = getSchemaObjects("orders");
+        assertTrue(names.toString(), names.contains("orders_customer_id_idx"));
+        assertTrue(names.toString(), names.contains("orders_customer_id_fk"));
+        assertEquals(60, dump(connection, "orders").size());
+        assertEquals(0, getColumn("SELECT id FROM orders WHERE customer_id IS NULL").size());
+    }
+
+    @Test
+    public void appendsRowsWithStoredSeed() throws Exception
+    {
+        SqlDatabase shop = Tables.parse(SHOP);
+        GenerationOptions options = options("chunkSize=20");
+        assertTrue(DataGenerator.generateTables(h2.getDataSource(), shop, options, SEED,
+                createShop(connection, shop, options)));
+        List<String> orders = dump(connection, "orders");
+        try {
+            DataGenerator.appendRows(h2.getDataSource(), connection, shop, options, 50.0, SEED + 1);
+            fail("rows appended with a seed other than the stored one");
+        } catch (DatabaseGenerationException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("generated with seed " + SEED));
+        }
+        assertEquals(orders, dump(connection, "orders"));
+        assertTrue(DataGenerator.appendRows(h2.getDataSource(), connection, shop, options, 50.0, null));
+        List<String> appended = dump(connection, "orders");
+        assertEquals(90, appended.size());
+        assertEquals(orders, appended.subList(0, 60));
+        assertEquals(38, dump(connection, "customers").size());
+        assertEquals(0, getColumn("SELECT id FROM orders WHERE customer_id IS NULL OR customer_id NOT BETWEEN 1 AND 38")
+                .size());
+    }
+}
@@ -0,0 +1,132 @@
+package main.com.company.generators;
+
+import main.com.company.models.Distribution;
+import main.com.company.models.SqlNumericColumn;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DistributionsTest {
+    private static final int SAMPLES = 200000;
+
+    private final RowRandom random = Randoms.forRows(42, "distributions");
+
+    private RowRandom at(int sample)
+    {
+        random.seek(sample, 0);
+        return random;
+    }
+
+    @Test
+    public void aliasTableFollowsWeights()
+    {
+        double[] weights = {1, 2, 0, 3, 4};
+        AliasTable table = new AliasTable(weights);
+        int[] counts = new int[weights.length];
+        for (int i = 0; i < SAMPLES; ++i) {
+            ++counts[table.next(at(i))];
+        }
+        assertEquals(0, counts[2]);
+        for (int i = 0; i < weights.length; ++i) {
+            assertEquals("index " + i, weights[i] / 10, (double)counts[i] / SAMPLES, 0.005);
+        }
+    }
+
+    @Test
+    public void aliasTableOfEqualWeightsIsUniform()
+    {
+        AliasTable table = new AliasTable(new double[]{5, 5, 5, 5, 5, 5, 5, 5});
+        int[] counts = new int[table.size()];
+        for (int i = 0; i < SAMPLES; ++i) {
+            ++counts[table.next(at(i))];
+        }
+        for (int count : counts) {
+            assertEquals(1.0 / counts.length, (double)count / SAMPLES, 0.005);
+        }
+    }
+
+    @Test
+    public void uniformReferencesCoverParentRows()
+    {
+        Distributions.IntSampler sampler = Distributions.forReference(null, 10);
+        int[] counts = new int[11];
+        for (int i = 0; i < SAMPLES; ++i) {
+            ++counts[sampler.next(at(i))];
+        }
+        assertEquals(0, counts[0]);
+        for (int id = 1; id <= 10; ++id) {
+            assertEquals("id " + id, 0.1, (double)counts[id] / SAMPLES, 0.005);
+        }
+    }
+
+    @Test
+    public void zipfReferencesFollowRanks()
+    {
+        int n = 100000;
+        double exponent = 1.2;
+        Distributions.IntSampler sampler = Distributions.forReference(new Distribution("zipf", exponent, 0, 0, null), n);
+        int[] counts = new int[4];
+        for (int i = 0; i < SAMPLES; ++i) {
+            int id = sampler.next(at(i));
+            assertTrue("id " + id, id >= 1 && id <= n);
+            if (id < counts.length) {
+                ++counts[id];
+            }
+        }
+        double harmonic = 0;
+        for (int k = 1; k <= n; ++k) {
+            harmonic += Math.pow(k, -exponent);
+        }
+        for (int k = 1; k < counts.length; ++k) {
+            assertEquals("rank " + k, Math.pow(k, -exponent) / harmonic, (double)counts[k] / SAMPLES, 0.005);
+        }
+    }
+
+    @Test
+    public void exponentialReferencesStayInParentRows()
+    {
+        int n = 1000;
+        Distributions.IntSampler sampler = Distributions.forReference(new Distribution("exponential", 0, 10, 0, null),
+                n);
+        int belowMean = 0;
+        for (int i = 0; i < SAMPLES; ++i) {
+            int id = sampler.next(at(i));
+            assertTrue("id " + id, id >= 1 && id <= n);
+            if (id <= 100) {
+                ++belowMean;
+            }
+        }
+        assertEquals((1 - Math.exp(-1)) / (1 - Math.exp(-10)), (double)belowMean / SAMPLES, 0.01);
+    }
+
+    @Test
+    public void weightedColumnFollowsBuckets()
+    {
+        SqlNumericColumn column = new SqlNumericColumn("c", "double", 50, 100,
+                new Distribution("weighted", 0, 0, 0, new double[]{3, 1}), false);
+        Distributions.DoubleSampler sampler = Distributions.forColumn(column);
+        int low = 0;
+        for (int i = 0; i < SAMPLES; ++i) {
+            double value = sampler.next(at(i));
+            assertTrue("value " + value, value >= 0 && value < 100);
+            if (value < 50) {
+                ++low;
+            }
+        }
+        assertEquals(0.75, (double)low / SAMPLES, 0.005);
+    }
+
+    @Test
+    public void exponentialColumnHasDeclaredMean()
+    {
+        SqlNumericColumn column = new SqlNumericColumn("c", "double", 10, 0,
+                new Distribution("exponential", 0, 10, 0, null), false);
+        Distributions.DoubleSampler sampler = Distributions.forColumn(column);
+        double sum = 0;
+        for (int i = 0; i < SAMPLES; ++i) {
+            sum += sampler.next(at(i));
+        }
+        assertEquals(10, sum / SAMPLES, 0.2);
+    }
+}
@@ -0,0 +1,210 @@
+package main.com.company.generators;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Connection to an in-memory H2 database in MySQL mode for the tests of the JDBC steps. Statements of MySQL syntax
+ * H2 does not know are rewritten to equivalent ones, LOAD DATA reading only spill files, statements can be made to
+ * fail once, and statements left open are counted. Closing the connection handed out, for instance by a pool, keeps
+ * the database open until {@link #close()}.
+ */
+final class H2Connection implements InvocationHandler {
+    private static final Pattern UPDATE_JOIN = Pattern.compile(
+            "UPDATE (\\w+) t JOIN (\\w+) l ON t\\.id = l\\.id SET (.+) WHERE l\\.id BETWEEN \\? AND \\?");
+
+    private static final Pattern SET_FROM_JOINED = Pattern.compile("t\\.(\\w+)=l\\.(\\w+)");
+
+    private static final Pattern TABLE_COMMENT = Pattern.compile("(CREATE TABLE (\\w+)\\(.*\\)) COMMENT='([^']*)'");
+
+    private static final Map<String, String> QUERIES = new HashMap<String, String>() {
+        {
+            put("SELECT INDEX_NAME FROM INFORMATION_SCHEMA.STATISTICS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? "
+                            + "UNION SELECT CONSTRAINT_NAME FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS WHERE "
+                            + "TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?",
+                    "SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_SCHEMA = SCHEMA() AND TABLE_NAME = ? "
+                            + "UNION SELECT CONSTRAINT_NAME FROM INFORMATION_SCHEMA.CONSTRAINTS WHERE "
+                            + "TABLE_SCHEMA = SCHEMA() AND TABLE_NAME = ?");
+            put("SELECT TABLE_NAME, TABLE_COMMENT FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = ?",
+                    "SELECT TABLE_NAME, REMARKS FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_CATALOG = ?");
+            // H2 has no unique checks to turn off
+            put("SET unique_checks = 0", "SELECT 1");
+            put("SET foreign_key_checks = 0", "SET REFERENTIAL_INTEGRITY FALSE");
+        }
+    };
+
+    private static final Pattern LOAD_DATA = Pattern.compile(
+            "LOAD DATA LOCAL INFILE '(.+)' INTO TABLE (\\w+) CHARACTER SET utf8mb4 \\((.+)\\)");
+
+    private final Connection connection;
+
+    private String failingPrefix;
+
+    private int openStatements;
+
+    private H2Connection(Connection connection)
+    {
+        this.connection = connection;
+    }
+
+    /**
+     * Opens a connection to a new database of the given name, with auto-commit off like pooled connections.
+     */
+    static H2Connection open(String name) throws
+            SQLException
+    {
+        Connection connection = DriverManager.getConnection("jdbc:h2:mem:" + name
+                + ";MODE=MySQL;DATABASE_TO_UPPER=FALSE");
+        connection.setAutoCommit(false);
+        return new H2Connection(connection);
+    }
+
+    Connection get()
+    {
+        return (Connection)Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                this);
+    }
+
+    /**
+     * Data source handing out this connection, the database name of the data source is the one given to open it.
+     */
+    DataSource getDataSource()
+    {
+        return (DataSource)Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("getConnection")) {
+                        return get();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * Makes the next statement starting with the prefix fail when executed.
+     */
+    void failOnce(String prefix)
+    {
+        failingPrefix = prefix;
+    }
+
+    int getOpenStatements()
+    {
+        return openStatements;
+    }
+
+    void close() throws
+            SQLException
+    {
+        connection.close();
+    }
+
+    static String rewrite(String sql)
+    {
+        String query = QUERIES.get(sql);
+        if (query != null) {
+            return query;
+        }
+        // H2 parses the MySQL table comment but does not keep it
+        Matcher comment = TABLE_COMMENT.matcher(sql);
+        if (comment.matches()) {
+            return comment.group(1) + "; COMMENT ON TABLE " + comment.group(2) + " IS '" + comment.group(3) + "'";
+        }
+        Matcher update = UPDATE_JOIN.matcher(sql);
+        if (update.matches()) {
+            String stage = update.group(2);
+            String assignments = SET_FROM_JOINED.matcher(update.group(3))
+                    .replaceAll("$1=(SELECT l.$2 FROM " + stage + " l WHERE l.id = t.id)");
+            return "UPDATE " + update.group(1) + " t SET " + assignments + " WHERE t.id IN (SELECT id FROM " + stage
+                    + " WHERE id BETWEEN ? AND ?)";
+        }
+        // like LOAD DATA LOCAL, rows with ids already in the table are skipped
+        Matcher load = LOAD_DATA.matcher(sql);
+        if (load.matches()) {
+            String table = load.group(2);
+            return "INSERT INTO " + table + " (" + load.group(3) + ") SELECT * FROM CSVREAD('" + load.group(1) + "', '"
+                    + load.group(3).replace(',', '\t') + "', 'charset=UTF-8 fieldDelimiter= fieldSeparator=\t') l"
+                    + " WHERE NOT EXISTS (SELECT 1 FROM " + table + " t WHERE t.id = l.id)";
+        }
+        return sql.replace("DROP TEMPORARY TABLE", "DROP TABLE");
+    }
+
+    private void checkFailure(String sql) throws
+            SQLException
+    {
+        if (failingPrefix != null && sql.startsWith(failingPrefix)) {
+            failingPrefix = null;
+            throw new SQLException("injected failure of \"" + sql + "\"");
+        }
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws
+            Throwable
+    {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Statement track(Statement statement, String preparedSql)
+    {
+        ++openStatements;
+        Class<?> type = preparedSql == null ? Statement.class : PreparedStatement.class;
+        return (Statement)Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "close":
+                    if (!statement.isClosed()) {
+                        --openStatements;
+                    }
+                    break;
+                case "execute":
+                case "executeUpdate":
+                case "executeQuery":
+                    if (args != null && args[0] instanceof String) {
+                        checkFailure((String)args[0]);
+                        args[0] = rewrite((String)args[0]);
+                    } else {
+                        checkFailure(preparedSql);
+                    }
+                    break;
+                case "executeBatch":
+                    checkFailure(preparedSql);
+                    break;
+                default:
+                    break;
+            }
+            return call(statement, method, args);
+        });
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws
+            Throwable
+    {
+        switch (method.getName()) {
+            case "createStatement":
+                return track((Statement)call(connection, method, args), null);
+            case "close":
+                return null;
+            case "prepareStatement":
+                String sql = (String)args[0];
+                args[0] = rewrite(sql);
+                return track((Statement)call(connection, method, args), sql);
+            default:
+                return call(connection, method, args);
+        }
+    }
+}
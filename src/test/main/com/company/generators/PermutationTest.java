@@ -0,0 +1,67 @@
+package main.com.company.generators;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PermutationTest {
+    private static final long[] SIZES = {1, 2, 3, 4, 5, 15, 16, 17, 255, 256, 1000, 4097, 65537};
+
+    private static final long[] KEYS = {0, 1, 42, -7, Long.MAX_VALUE};
+
+    private static void assertBijection(long size, long key)
+    {
+        Permutation permutation = new Permutation(size, key);
+        boolean[] seen = new boolean[(int)size];
+        for (long i = 0; i < size; ++i) {
+            long image = permutation.get(i);
+            assertTrue("image " + image + " of " + i + " is out of [0, " + size + ")", image >= 0 && image < size);
+            assertFalse("image " + image + " is repeated for size " + size + ", key " + key, seen[(int)image]);
+            seen[(int)image] = true;
+        }
+    }
+
+    @Test
+    public void isBijectionOfRange()
+    {
+        for (long size : SIZES) {
+            for (long key : KEYS) {
+                assertBijection(size, key);
+            }
+        }
+    }
+
+    @Test
+    public void dependsOnKey()
+    {
+        Permutation first = new Permutation(1000, 1);
+        Permutation second = new Permutation(1000, 2);
+        int equal = 0;
+        for (long i = 0; i < 1000; ++i) {
+            if (first.get(i) == second.get(i)) {
+                ++equal;
+            }
+        }
+        assertTrue(equal < 20);
+        assertNotEquals(first.get(0), second.get(0));
+    }
+
+    @Test
+    public void supportsRangesBeyondInt()
+    {
+        long size = 3L * Integer.MAX_VALUE;
+        Permutation permutation = new Permutation(size, 42);
+        for (long i = size - 1000; i < size; ++i) {
+            long image = permutation.get(i);
+            assertTrue(image >= 0 && image < size);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyRange()
+    {
+        new Permutation(0, 42);
+    }
+}
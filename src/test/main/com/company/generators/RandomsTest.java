@@ -0,0 +1,49 @@
+package main.com.company.generators;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class RandomsTest {
+    private static final long SEED = 42;
+
+    private static long first(String name)
+    {
+        RowRandom random = Randoms.forRows(SEED, name);
+        random.seek(0, 0);
+        return random.nextLong();
+    }
+
+    @Test
+    public void namesWithSameHashCodeGetDistinctStreams()
+    {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertNotEquals(first("Aa"), first("BB"));
+        assertEquals("AaAa".hashCode(), "BBBB".hashCode());
+        assertNotEquals(first("AaAa"), first("BBBB"));
+        assertNotEquals(Randoms.forRecordsCount(SEED, "Aa").nextLong(), Randoms.forRecordsCount(SEED, "BB").nextLong());
+    }
+
+    @Test
+    public void streamsOfColumnsAreDistinct()
+    {
+        Set<Long> values = new HashSet<>();
+        for (String name : new String[]{"t", "t.a", "t.b", "ta", "t.ab", "t.a\0", "u.a", ""}) {
+            values.add(first(name));
+        }
+        assertEquals(8, values.size());
+    }
+
+    @Test
+    public void streamDependsOnlyOnSeedAndName()
+    {
+        assertEquals(first("orders.total"), first("orders.total"));
+        RowRandom random = Randoms.forRows(SEED + 1, "orders.total");
+        random.seek(0, 0);
+        assertNotEquals(first("orders.total"), random.nextLong());
+    }
+}
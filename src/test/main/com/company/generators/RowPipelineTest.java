@@ -0,0 +1,128 @@
+package main.com.company.generators;
+
+import main.com.company.metrics.TableMetrics;
+import main.com.company.models.Reference;
+import main.com.company.models.SqlNumericColumn;
+import main.com.company.models.SqlTable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RowPipelineTest {
+    private static final int ROWS = 100;
+
+    private static final long SEED = 42;
+
+    private final SqlTable table = Tables.table("items", ROWS, new SqlNumericColumn("amount", "integer", 1000, 20));
+
+    private final Map<String, Integer> rowCounts = Tables.rowCounts(table);
+
+    private Connection pipelined;
+
+    private Connection plain;
+
+    private ExecutorService generators;
+
+    private static Connection createDatabase(String name) throws Exception
+    {
+        Connection connection = DriverManager.getConnection("jdbc:h2:mem:" + name + ";MODE=MySQL");
+        try (Statement s = connection.createStatement()) {
+            s.executeUpdate("CREATE TABLE items(id INTEGER NOT NULL PRIMARY KEY, amount INTEGER)");
+        }
+        return connection;
+    }
+
+    @Before
+    public void setUp() throws Exception
+    {
+        pipelined = createDatabase("pipelined");
+        plain = createDatabase("plain");
+        generators = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        generators.shutdownNow();
+        pipelined.close();
+        plain.close();
+    }
+
+    private TablePlan compile()
+    {
+        return DataGenerator.compileTable(table, new Reference[0], rowCounts, SEED);
+    }
+
+    private void insert(TablePlan plan, int firstRow, int lastRow) throws Exception
+    {
+        RowPipeline.insert(pipelined, "INSERT INTO items VALUES (?, ?)", plan, firstRow, lastRow, 7, 2,
+                Randoms.forRows(SEED, "items"), generators, new TableMetrics("items", lastRow - firstRow));
+    }
+
+    private static List<String> selectRows(Connection connection) throws Exception
+    {
+        List<String> rows = new ArrayList<>();
+        try (Statement s = connection.createStatement();
+             ResultSet rs = s.executeQuery("SELECT id, amount FROM items ORDER BY id")) {
+            while (rs.next()) {
+                rows.add(rs.getInt(1) + ":" + rs.getInt(2));
+            }
+        }
+        return rows;
+    }
+
+    private static List<Integer> selectIds(Connection connection) throws Exception
+    {
+        List<Integer> ids = new ArrayList<>();
+        for (String row : selectRows(connection)) {
+            ids.add(Integer.valueOf(row.substring(0, row.indexOf(':'))));
+        }
+        return ids;
+    }
+
+    @Test
+    public void insertsRowsOfSlicedPlan() throws Exception
+    {
+        insert(compile().slice(40, 1), 5, 25);
+        List<Integer> expected = new ArrayList<>();
+        for (int id = 46; id <= 65; ++id) {
+            expected.add(id);
+        }
+        assertEquals(expected, selectIds(pipelined));
+    }
+
+    @Test
+    public void insertsRowsOfShardPlan() throws Exception
+    {
+        insert(compile().slice(3, 4), 0, 25);
+        List<Integer> expected = new ArrayList<>();
+        for (int row = 3; row < ROWS; row += 4) {
+            expected.add(row + 1);
+        }
+        assertEquals(expected, selectIds(pipelined));
+    }
+
+    @Test
+    public void insertsSameRowsAsPlainInsert() throws Exception
+    {
+        TablePlan plan = compile().slice(10, 3);
+        insert(plan, 0, 30);
+        assertTrue(DataGenerator.fillTable(plain, table, new Reference[0], plan, 0, 30, 7,
+                Randoms.forRows(SEED, "items"), new TableMetrics("items", 30)));
+        assertEquals(30, selectRows(pipelined).size());
+        assertEquals(selectRows(plain), selectRows(pipelined));
+    }
+}
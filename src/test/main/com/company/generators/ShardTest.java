@@ -0,0 +1,91 @@
+package main.com.company.generators;
+
+import main.com.company.models.Reference;
+import main.com.company.models.SqlTable;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ShardTest {
+    private static final int[] ROW_COUNTS = {1, 2, 7, 100, 1001};
+
+    private static final int[] SHARD_COUNTS = {1, 2, 3, 7};
+
+    private static Shard[] split(SqlTable table, Shard.Method method, int count) throws Exception
+    {
+        return Shard.split(new SqlTable[]{table}, Tables.rowCounts(table), method, count);
+    }
+
+    @Test
+    public void shardsCoverEveryRowOnce() throws Exception
+    {
+        for (Shard.Method method : Shard.Method.values()) {
+            for (int count : SHARD_COUNTS) {
+                for (int rowCount : ROW_COUNTS) {
+                    int[] covered = new int[rowCount];
+                    for (Shard shard : split(Tables.table("t", rowCount), method, count)) {
+                        int offset = shard.getRowOffset("t", rowCount);
+                        int stride = shard.getRowStride("t");
+                        for (int i = 0; i < shard.getRowCount("t", rowCount); ++i) {
+                            ++covered[offset + i * stride];
+                        }
+                    }
+                    for (int row = 0; row < rowCount; ++row) {
+                        assertEquals(method + " " + count + " shards of " + rowCount + " rows, row " + row, 1,
+                                covered[row]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void everyShardStoresGlobalTable() throws Exception
+    {
+        for (Shard shard : split(Tables.globalTable("g", 100), Shard.Method.HASH, 3)) {
+            assertEquals(100, shard.getRowCount("g", 100));
+            assertEquals(0, shard.getRowOffset("g", 100));
+            assertEquals(1, shard.getRowStride("g"));
+            assertEquals(42, shard.getParentId("g", 100, 42));
+        }
+    }
+
+    @Test
+    public void parentIdsStayInShard() throws Exception
+    {
+        for (Shard.Method method : Shard.Method.values()) {
+            for (int count : SHARD_COUNTS) {
+                for (int rowCount : ROW_COUNTS) {
+                    if (rowCount < count) {
+                        continue;
+                    }
+                    for (Shard shard : split(Tables.table("t", rowCount), method, count)) {
+                        boolean[] stored = new boolean[rowCount];
+                        int offset = shard.getRowOffset("t", rowCount);
+                        int stride = shard.getRowStride("t");
+                        for (int i = 0; i < shard.getRowCount("t", rowCount); ++i) {
+                            stored[offset + i * stride] = true;
+                        }
+                        for (int id = 1; id <= rowCount; ++id) {
+                            int parentId = shard.getParentId("t", rowCount, id);
+                            assertTrue(method + " shard " + shard.getIndex() + " of " + count + " moved id " + id
+                                    + " to " + parentId, parentId >= 1 && parentId <= rowCount && stored[parentId - 1]);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test(expected = DatabaseGenerationException.class)
+    public void rejectsParentWithLessRowsThanShards() throws Exception
+    {
+        SqlTable parent = Tables.table("parent", 2);
+        SqlTable child = Tables.table("child", 10, new Reference[]{new Reference("parent", "parent_id")});
+        Map<String, Integer> rowCounts = Tables.rowCounts(parent, child);
+        Shard.split(new SqlTable[]{parent, child}, rowCounts, Shard.Method.RANGE, 3);
+    }
+}
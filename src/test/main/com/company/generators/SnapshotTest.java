@@ -0,0 +1,196 @@
+package main.com.company.generators;
+
+import main.com.company.metrics.GenerationMetrics;
+import main.com.company.models.SqlDatabase;
+import main.com.company.models.SqlTable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SnapshotTest {
+    private static final long SEED = 42;
+
+    private static final int GROUP_SIZE = 64;
+
+    private static final String DECLARATION = "<database name=\"db\">"
+            + "<table name=\"customers\" mean=\"150\">"
+            + "<column name=\"name\" type=\"string\" minLength=\"3\" maxLength=\"20\"/>"
+            + "<column name=\"vip\" type=\"boolean\"/>"
+            + "</table>"
+            + "<table name=\"orders\" mean=\"400\" dispersion=\"10\">"
+            + "<column name=\"code\" type=\"string\" minLength=\"8\" maxLength=\"8\" unique=\"true\"/>"
+            + "<column name=\"status\" type=\"string\" minLength=\"3\" maxLength=\"9\" cardinality=\"4\"/>"
+            + "<column name=\"total\" type=\"double\" mean=\"80\" dispersion=\"25\"/>"
+            + "<reference table=\"customers\" columnName=\"customer_id\" distribution=\"zipf\"/>"
+            + "</table>"
+            + "</database>";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    private byte[] declaration;
+
+    private SqlDatabase database;
+
+    private Map<String, Integer> rowCounts;
+
+    private File file;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        declaration = DECLARATION.getBytes(StandardCharsets.UTF_8);
+        database = Tables.parse(DECLARATION);
+        rowCounts = DataGenerator.getRowCounts(database.getGenerationOrder(), SEED, 1);
+        GenerationMetrics metrics = new GenerationMetrics("db");
+        for (SqlTable t : database.getGenerationOrder()) {
+            metrics.addTable(t.getTableName(), rowCounts.get(t.getTableName()));
+        }
+        file = folder.newFile("db.snapshot");
+        Snapshot.write(file, declaration, database.getGenerationOrder(), rowCounts, SEED, GROUP_SIZE, executor, 2,
+                metrics);
+    }
+
+    @After
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Rows of the table replayed from the snapshot, in groups order.
+     */
+    private static List<String> replay(Snapshot snapshot, String tableName) throws Exception
+    {
+        List<String> rows = new ArrayList<>();
+        for (Snapshot.Group g : snapshot.getGroups()) {
+            if (!g.getTableName().equals(tableName)) {
+                continue;
+            }
+            List<Object> values = new ArrayList<>();
+            snapshot.replay(g, new RowSink() {
+                @Override
+                public void setInt(int column, int value)
+                {
+                    values.add(value);
+                }
+
+                @Override
+                public void setDouble(int column, double value)
+                {
+                    values.add(value);
+                }
+
+                @Override
+                public void setBoolean(int column, boolean value)
+                {
+                    values.add(value);
+                }
+
+                @Override
+                public void setString(int column, String value)
+                {
+                    values.add(value);
+                }
+
+                @Override
+                public void setAscii(int column, byte[] value, int length)
+                {
+                    values.add(new String(value, 0, length, StandardCharsets.US_ASCII));
+                }
+
+                @Override
+                public void endRow()
+                {
+                    rows.add(values.toString());
+                    values.clear();
+                }
+
+                @Override
+                public void flush()
+                {
+                }
+
+                @Override
+                public void close()
+                {
+                }
+            });
+        }
+        return rows;
+    }
+
+    @Test
+    public void storesDeclarationSeedAndRowCounts() throws Exception
+    {
+        try (Snapshot snapshot = Snapshot.open(file)) {
+            assertArrayEquals(declaration, snapshot.getDeclaration());
+            assertEquals(SEED, snapshot.getSeed());
+            assertEquals(rowCounts, snapshot.getRowCounts());
+            for (SqlTable t : database.getDatabaseTables()) {
+                assertTrue(snapshot.matches(t));
+            }
+            SqlTable changed = Tables.table("customers", 150, database.getTable("orders").getTableColumns());
+            assertFalse(snapshot.matches(changed));
+        }
+    }
+
+    @Test
+    public void replaysGeneratedRows() throws Exception
+    {
+        try (Snapshot snapshot = Snapshot.open(file)) {
+            for (SqlTable t : database.getGenerationOrder()) {
+                TableRows expected = TableRows.of(database, t.getTableName(), SEED);
+                List<String> rows = replay(snapshot, t.getTableName());
+                assertEquals(expected.size(), rows.size());
+                for (int row = 0; row < rows.size(); ++row) {
+                    assertEquals(t.getTableName() + " row " + row, Arrays.toString(expected.getRow(row)),
+                            rows.get(row));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void splitsTablesIntoGroups() throws Exception
+    {
+        try (Snapshot snapshot = Snapshot.open(file)) {
+            int expectedGroups = 0;
+            for (int count : rowCounts.values()) {
+                expectedGroups += (count + GROUP_SIZE - 1) / GROUP_SIZE;
+            }
+            assertEquals(expectedGroups, snapshot.getGroups().size());
+            for (Snapshot.Group g : snapshot.getGroups()) {
+                assertEquals(0, g.getFirstRow() % GROUP_SIZE);
+                assertTrue(g.getRowCount() > 0 && g.getRowCount() <= GROUP_SIZE);
+            }
+        }
+    }
+
+    @Test(expected = DatabaseGenerationException.class)
+    public void rejectsOtherFiles() throws Exception
+    {
+        File other = folder.newFile("other");
+        Files.write(other.toPath(), new byte[64]);
+        Snapshot.open(other).close();
+    }
+}
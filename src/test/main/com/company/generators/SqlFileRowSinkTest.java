@@ -0,0 +1,54 @@
+package main.com.company.generators;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+public class SqlFileRowSinkTest {
+    @Test
+    public void escapesStringLiterals() throws Exception
+    {
+        StringWriter out = new StringWriter();
+        try (SqlFileRowSink sink = new SqlFileRowSink(out, "t", "id,s", 10)) {
+            sink.setInt(0, 1);
+            sink.setString(1, "it's a \\ path\nwith\rbreaks\0");
+            sink.endRow();
+            sink.flush();
+        }
+        assertEquals("INSERT INTO t (id,s) VALUES\n(1,'it\\'s a \\\\ path\\nwith\\rbreaks\\0');\n", out.toString());
+    }
+
+    @Test
+    public void escapesAsciiLiterals() throws Exception
+    {
+        StringWriter out = new StringWriter();
+        byte[] value = "a'b\\c--".getBytes(StandardCharsets.US_ASCII);
+        try (SqlFileRowSink sink = new SqlFileRowSink(out, "t", "s", 10)) {
+            sink.setAscii(0, value, 5);
+            sink.endRow();
+            sink.flush();
+        }
+        assertEquals("INSERT INTO t (s) VALUES\n('a\\'b\\\\c');\n", out.toString());
+    }
+
+    @Test
+    public void splitsRowsIntoStatements() throws Exception
+    {
+        StringWriter out = new StringWriter();
+        try (SqlFileRowSink sink = new SqlFileRowSink(out, "t", "id,d,b", 2)) {
+            for (int row = 0; row < 3; ++row) {
+                sink.setInt(0, row + 1);
+                sink.setDouble(1, row / 2.0);
+                sink.setBoolean(2, row % 2 == 0);
+                sink.endRow();
+            }
+            sink.flush();
+            sink.flush();
+        }
+        assertEquals("INSERT INTO t (id,d,b) VALUES\n(1,0.0,1),\n(2,0.5,0);\n"
+                + "INSERT INTO t (id,d,b) VALUES\n(3,1.0,1);\n", out.toString());
+    }
+}
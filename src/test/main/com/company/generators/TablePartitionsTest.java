@@ -0,0 +1,101 @@
+package main.com.company.generators;
+
+import main.com.company.models.SqlTable;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class TablePartitionsTest {
+    private static final int[] ROW_COUNTS = {0, 1, 5, 100, 1001};
+
+    private static final int[] PARTITION_COUNTS = {1, 3, 4, 7, 16};
+
+    private static final int[] SHARD_COUNTS = {1, 2, 3, 4};
+
+    /**
+     * Partition MySQL stores the id in, following the clause the table is created with.
+     */
+    private static int getPartition(String method, int partitions, int rowCount, long id)
+    {
+        if (method.equals("hash")) {
+            return (int)(id % partitions);
+        }
+        for (int p = 0; p < partitions - 1; ++p) {
+            if (id < (long)rowCount * (p + 1) / partitions + 1) {
+                return p;
+            }
+        }
+        return partitions - 1;
+    }
+
+    private static void assertPartitioned(String method, int partitions, int rowCount, Shard.Method shardMethod,
+                                          int shardCount) throws Exception
+    {
+        String name = method + " " + partitions + " partitions of " + rowCount + " rows, " + shardMethod + " "
+                + shardCount + " shards";
+        SqlTable t = Tables.partitionedTable("t", rowCount, partitions, method);
+        int[] covered = new int[rowCount];
+        for (Shard shard : Shard.split(new SqlTable[]{t}, Tables.rowCounts(t), shardMethod, shardCount)) {
+            TablePlan plan = new TablePlan(new TablePlan.ColumnWriter[0], new int[0], 0,
+                    shard.getRowOffset("t", rowCount), shard.getRowStride("t"));
+            List<TablePartitions.Partition> split = TablePartitions.split(t, rowCount, shard);
+            assertEquals(name, partitions, split.size());
+            int shardRows = 0;
+            for (TablePartitions.Partition p : split) {
+                TablePlan slice = plan.slice(p.getFirstRow(), p.getRowStep());
+                for (int i = 0; i < p.getRowCount(); ++i) {
+                    int row = slice.getRow(i);
+                    ++covered[row];
+                    assertEquals(name + ", row " + row, getPartition(method, partitions, rowCount, row + 1),
+                            p.getNumber());
+                }
+                shardRows += p.getRowCount();
+            }
+            assertEquals(name, shard.getRowCount("t", rowCount), shardRows);
+        }
+        for (int row = 0; row < rowCount; ++row) {
+            assertEquals(name + ", row " + row, 1, covered[row]);
+        }
+    }
+
+    @Test
+    public void partitionsCoverEveryRowOnce() throws Exception
+    {
+        for (String method : new String[]{"range", "hash"}) {
+            for (int partitions : PARTITION_COUNTS) {
+                for (int rowCount : ROW_COUNTS) {
+                    for (Shard.Method shardMethod : Shard.Method.values()) {
+                        for (int shardCount : SHARD_COUNTS) {
+                            if (rowCount >= shardCount) {
+                                assertPartitioned(method, partitions, rowCount, shardMethod, shardCount);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void tableWithoutPartitionsIsWhole()
+    {
+        List<TablePartitions.Partition> split = TablePartitions.split(Tables.table("t", 100), 100, Shard.WHOLE);
+        assertEquals(1, split.size());
+        assertEquals(-1, split.get(0).getNumber());
+        assertEquals(100, split.get(0).getRowCount());
+        assertEquals(5, split.get(0).getChunk(5));
+    }
+
+    @Test
+    public void partitionClauseSplitsPlannedIds()
+    {
+        assertEquals("", TablePartitions.getPartitionClause(Tables.table("t", 10), 10));
+        assertEquals(" PARTITION BY HASH(id) PARTITIONS 3",
+                TablePartitions.getPartitionClause(Tables.partitionedTable("t", 10, 3, "hash"), 10));
+        assertEquals(" PARTITION BY RANGE(id) (PARTITION p0 VALUES LESS THAN (4),PARTITION p1 VALUES LESS THAN (7),"
+                        + "PARTITION p2 VALUES LESS THAN (MAXVALUE))",
+                TablePartitions.getPartitionClause(Tables.partitionedTable("t", 10, 3, "range"), 10));
+    }
+}
@@ -0,0 +1,112 @@
+package main.com.company.generators;
+
+import main.com.company.models.Reference;
+import main.com.company.models.SqlColumn;
+import main.com.company.models.SqlNonNumericColumn;
+import main.com.company.models.SqlNumericColumn;
+import main.com.company.models.SqlStringColumn;
+import main.com.company.models.SqlTable;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class TablePlanTest {
+    private static final int ROWS = 1000;
+
+    /**
+     * Sink keeping the ids and the values count of the rows.
+     */
+    private static final class CountingSink implements RowSink {
+        private final List<Integer> ids = new ArrayList<>();
+
+        private int values;
+
+        @Override
+        public void setInt(int column, int value)
+        {
+            if (column == 0) {
+                ids.add(value);
+            }
+            ++values;
+        }
+
+        @Override
+        public void setDouble(int column, double value)
+        {
+            ++values;
+        }
+
+        @Override
+        public void setBoolean(int column, boolean value)
+        {
+            ++values;
+        }
+
+        @Override
+        public void setString(int column, String value)
+        {
+            ++values;
+        }
+
+        @Override
+        public void setAscii(int column, byte[] value, int length)
+        {
+            ++values;
+        }
+
+        @Override
+        public void endRow()
+        {
+        }
+
+        @Override
+        public void flush()
+        {
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
+    /**
+     * Compiles the table on its own, as GeneratorBenchmark does, with no rows counts.
+     */
+    private static TablePlan compile(SqlColumn... columns)
+    {
+        SqlTable table = Tables.table("t", ROWS, columns);
+        return DataGenerator.compileTable(table, new Reference[0], new HashMap<>(), 42);
+    }
+
+    @Test
+    public void compilesTableMissingFromRowCounts() throws Exception
+    {
+        TablePlan plan = compile(new SqlStringColumn("s", "string", 10, 30, 0),
+                new SqlStringColumn("c", "string", 10, 30, 16), new SqlNumericColumn("i", "integer", 1000, 20),
+                new SqlNumericColumn("d", "double", 50, 10), new SqlNonNumericColumn("b", "boolean"));
+        CountingSink sink = new CountingSink();
+        plan.writeRows(sink, 0, ROWS, Randoms.forRows(42, "t"));
+        assertEquals(ROWS, sink.ids.size());
+        assertEquals(1, (int)sink.ids.get(0));
+        assertEquals(ROWS, (int)sink.ids.get(ROWS - 1));
+        assertEquals(ROWS * plan.getColumnCount(), sink.values);
+    }
+
+    @Test
+    public void sliceOfCopyWritesRowsOfWholeTable() throws Exception
+    {
+        TablePlan plan = compile(new SqlNumericColumn("i", "integer", 1000, 20));
+        CountingSink sink = new CountingSink();
+        plan.copy().slice(10, 3).writeRows(sink, 0, 4, Randoms.forRows(42, "t"));
+        List<Integer> expected = new ArrayList<>();
+        for (int row = 10; row < 22; row += 3) {
+            expected.add(row + 1);
+        }
+        assertEquals(expected, sink.ids);
+    }
+}
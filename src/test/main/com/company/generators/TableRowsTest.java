@@ -0,0 +1,54 @@
+package main.com.company.generators;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class TableRowsTest {
+    private static final int ROWS = 5000;
+
+    private static final long SEED = 42;
+
+    private static TableRows getRows() throws Exception
+    {
+        String xml = "<database name=\"db\"><table name=\"items\" mean=\"" + ROWS + "\">"
+                + "<column name=\"code\" type=\"string\" minLength=\"8\" maxLength=\"12\" unique=\"true\"/>"
+                + "<column name=\"label\" type=\"string\" minLength=\"3\" maxLength=\"40\"/>"
+                + "<column name=\"kind\" type=\"string\" minLength=\"4\" maxLength=\"6\" cardinality=\"16\"/>"
+                + "<column name=\"amount\" type=\"integer\" mean=\"1000\" dispersion=\"20\"/>"
+                + "</table></database>";
+        return TableRows.of(Tables.parse(xml), "items", SEED);
+    }
+
+    private static List<String> format(List<Object[]> rows)
+    {
+        return rows.stream().map(Arrays::toString).collect(Collectors.toList());
+    }
+
+    @Test
+    public void parallelCopiesOfPlanGenerateSameRows() throws Exception
+    {
+        TableRows rows = getRows();
+        List<Object[]> expected = new ArrayList<>();
+        for (int row = 0; row < rows.size(); ++row) {
+            expected.add(rows.getRow(row));
+        }
+        List<Object[]> parallel = getRows().parallelStream().collect(Collectors.toList());
+        assertEquals(format(expected), format(parallel));
+    }
+
+    @Test
+    public void rowDoesNotDependOnPreviousRows() throws Exception
+    {
+        TableRows rows = getRows();
+        int last = rows.size() - 1;
+        Object[] row = getRows().getRow(last);
+        rows.getRow(0);
+        assertEquals(Arrays.toString(row), Arrays.toString(rows.getRow(last)));
+    }
+}
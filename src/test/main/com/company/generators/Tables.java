@@ -0,0 +1,62 @@
+package main.com.company.generators;
+
+import main.com.company.models.Reference;
+import main.com.company.models.SqlColumn;
+import main.com.company.models.SqlDatabase;
+import main.com.company.models.SqlIndex;
+import main.com.company.models.SqlTable;
+import main.com.company.parsers.XmlParser;
+
+import javax.management.modelmbean.XMLParseException;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tables declarations shared by the tests. Tables have no dispersion, so their rows count is the declared mean.
+ */
+final class Tables {
+    private Tables()
+    {
+    }
+
+    static SqlTable table(String name, int rowCount, SqlColumn... columns)
+    {
+        return table(name, rowCount, new Reference[0], columns);
+    }
+
+    static SqlTable table(String name, int rowCount, Reference[] refs, SqlColumn... columns)
+    {
+        return new SqlTable(name, columns, refs, rowCount, 0, 0);
+    }
+
+    static SqlTable globalTable(String name, int rowCount)
+    {
+        return new SqlTable(name, new SqlColumn[0], new Reference[0], rowCount, 0, 0, new SqlIndex[0], true);
+    }
+
+    static SqlTable partitionedTable(String name, int rowCount, int partitions, String method)
+    {
+        return new SqlTable(name, new SqlColumn[0], new Reference[0], rowCount, 0, 0, new SqlIndex[0], false,
+                partitions, method);
+    }
+
+    /**
+     * Declared rows counts of the tables.
+     */
+    static Map<String, Integer> rowCounts(SqlTable... tables)
+    {
+        Map<String, Integer> rowCounts = new HashMap<>();
+        for (SqlTable t : tables) {
+            rowCounts.put(t.getTableName(), t.getMean());
+        }
+        return rowCounts;
+    }
+
+    static SqlDatabase parse(String declaration) throws
+            XMLParseException
+    {
+        return XmlParser.fromStream(new ByteArrayInputStream(declaration.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,78 @@
+package main.com.company.generators;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+public class TsvRowsTest {
+    private static String read(TsvRows rows) throws Exception
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = rows.asInputStream()) {
+            byte[] chunk = new byte[3];
+            for (int count; (count = in.read(chunk, 0, chunk.length)) >= 0; ) {
+                bytes.write(chunk, 0, count);
+            }
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void escapesSpecialCharacters() throws Exception
+    {
+        TsvRows rows = new TsvRows((out, row) -> {
+            out.setInt(0, row + 1);
+            out.setString(1, "tab\tnew\nline\\slash\0nul");
+            out.endRow();
+        }, 0, 1, 64);
+        assertEquals("1\ttab\\tnew\\nline\\\\slash\\0nul\n", read(rows));
+    }
+
+    @Test
+    public void encodesNonAsciiAsUtf8() throws Exception
+    {
+        TsvRows rows = new TsvRows((out, row) -> {
+            out.setString(0, "caf\u00e9 \u20ac");
+            out.endRow();
+        }, 0, 1, 64);
+        assertEquals("caf\u00e9 \u20ac\n", read(rows));
+    }
+
+    @Test
+    public void writesValuesOfEveryType() throws Exception
+    {
+        byte[] ascii = "ab\tcd".getBytes(StandardCharsets.US_ASCII);
+        TsvRows rows = new TsvRows((out, row) -> {
+            out.setInt(0, Integer.MIN_VALUE);
+            out.setInt(1, 0);
+            out.setDouble(2, -1.5);
+            out.setBoolean(3, true);
+            out.setBoolean(4, false);
+            out.setAscii(5, ascii, 4);
+            out.endRow();
+        }, 0, 1, 64);
+        assertEquals("-2147483648\t0\t-1.5\t1\t0\tab\\tc\n", read(rows));
+    }
+
+    @Test
+    public void growsBufferForLongRows() throws Exception
+    {
+        StringBuilder expected = new StringBuilder();
+        for (int row = 0; row < 20; ++row) {
+            expected.append(row + 1).append('\t').append("value-").append(row).append('\n');
+        }
+        TsvRows rows = new TsvRows((out, row) -> {
+            out.setInt(0, row + 1);
+            out.setString(1, "value-" + row);
+            out.endRow();
+        }, 0, 20, 4);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        rows.writeTo(Channels.newChannel(bytes));
+        assertEquals(expected.toString(), new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,195 @@
+package main.com.company.parsers;
+
+import main.com.company.models.*;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
+public class SchemaCacheTest {
+    private static final long MAGIC = 0x44474e5343484d31L;
+
+    private static final String DECLARATION = "<database name=\"db\">"
+            + "<table name=\"parents\" mean=\"10\"><column name=\"c\" type=\"integer\"/></table>"
+            + "<table name=\"children\" mean=\"20\"><reference table=\"parents\" columnName=\"parent_id\"/></table>"
+            + "</database>";
+
+    private static final String FULL_DECLARATION = "<database name=\"shop\">"
+            + "<table name=\"orders\" mean=\"500\" dispersion=\"10\" batchSize=\"50\">"
+            + "<column name=\"code\" type=\"string\" minLength=\"8\" maxLength=\"12\" unique=\"true\"/>"
+            + "<column name=\"status\" type=\"string\" minLength=\"3\" maxLength=\"9\" cardinality=\"5\"/>"
+            + "<column name=\"total\" type=\"double\" mean=\"80\" dispersion=\"25\" distribution=\"weighted\""
+            + " weights=\"1, 2.5, 0\"/>"
+            + "<column name=\"items\" type=\"integer\" distribution=\"zipf\" exponent=\"1.3\" max=\"40\"/>"
+            + "<column name=\"paid\" type=\"boolean\"/>"
+            + "<reference table=\"customers\" columnName=\"customer_id\" distribution=\"exponential\" mean=\"5\"/>"
+            + "<reference table=\"orders\" columnName=\"previous_id\"/>"
+            + "<index columns=\"status, paid\"/>"
+            + "<index name=\"orders_total\" columns=\"total\"/>"
+            + "</table>"
+            + "<table name=\"customers\" mean=\"100\" global=\"true\" partitions=\"4\" partitionBy=\"hash\">"
+            + "<column name=\"score\" type=\"double\" distribution=\"exponential\"/>"
+            + "</table>"
+            + "</database>";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private String declarationPath;
+
+    private File cacheDirectory;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        File declaration = folder.newFile("db.xml");
+        Files.write(declaration.toPath(), DECLARATION.getBytes(StandardCharsets.UTF_8));
+        declarationPath = declaration.getPath();
+        cacheDirectory = new File(folder.getRoot(), "cache");
+    }
+
+    private static String describe(Distribution d)
+    {
+        return d == null ? "-" : d.getName() + " " + d.getExponent() + " " + d.getMean() + " " + d.getMax() + " "
+                + Arrays.toString(d.getWeights());
+    }
+
+    private static String describe(SqlColumn c)
+    {
+        String result = c.getClass().getSimpleName() + " " + c.getColumnName() + " " + c.getColumnType() + " "
+                + c.isUnique();
+        if (c instanceof SqlNumericColumn) {
+            SqlNumericColumn n = (SqlNumericColumn)c;
+            result += " " + n.getMean() + " " + n.getDispersionPercentage() + " " + describe(n.getDistribution());
+        } else if (c instanceof SqlStringColumn) {
+            SqlStringColumn s = (SqlStringColumn)c;
+            result += " " + s.getMinLength() + " " + s.getMaxLength() + " " + s.getCardinality();
+        }
+        return result;
+    }
+
+    private static String describe(SqlDatabase database)
+    {
+        StringBuilder result = new StringBuilder(database.getDatabaseName()).append('\n');
+        for (SqlTable t : database.getDatabaseTables()) {
+            result.append(t.getTableName()).append(' ').append(t.getMean()).append(' ')
+                    .append(t.getDispersionPercentage()).append(' ').append(t.getBatchSize()).append(' ')
+                    .append(t.isGlobal()).append(' ').append(t.getPartitions()).append(' ')
+                    .append(t.getPartitionMethod()).append('\n');
+            for (SqlColumn c : t.getTableColumns()) {
+                result.append("  ").append(describe(c)).append('\n');
+            }
+            for (Reference r : t.getForeignKeys()) {
+                result.append("  ref ").append(r.getTableName()).append(' ').append(r.getColumnName()).append(' ')
+                        .append(describe(r.getDistribution())).append('\n');
+            }
+            for (SqlIndex i : t.getIndexes()) {
+                result.append("  index ").append(i.getIndexName()).append(' ')
+                        .append(Arrays.toString(i.getColumnNames())).append('\n');
+            }
+        }
+        for (SqlTable t : database.getGenerationOrder()) {
+            result.append(t.getTableName()).append(' ');
+        }
+        return result.toString();
+    }
+
+    private File getCacheFile()
+    {
+        File[] files = cacheDirectory.listFiles();
+        assertNotNull(files);
+        assertEquals(1, files.length);
+        return files[0];
+    }
+
+    private void writeCacheWithTablesCount(int count) throws IOException
+    {
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(getCacheFile()))) {
+            out.writeLong(MAGIC);
+            out.writeUTF("db");
+            out.writeInt(count);
+        }
+    }
+
+    private void assertParsed(SqlDatabase database)
+    {
+        assertEquals("db", database.getDatabaseName());
+        assertEquals(2, database.getDatabaseTables().length);
+        assertEquals("parents", database.getGenerationOrder()[0].getTableName());
+    }
+
+    @Test
+    public void cachedDeclarationEqualsParsedOne() throws Exception
+    {
+        Files.write(new File(declarationPath).toPath(), FULL_DECLARATION.getBytes(StandardCharsets.UTF_8));
+        SqlDatabase parsed = SchemaCache.fromFile(declarationPath, cacheDirectory);
+        assertNotNull(getCacheFile());
+        PrintStream stdout = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        SqlDatabase cached;
+        System.setOut(new PrintStream(output, true));
+        try {
+            cached = SchemaCache.fromFile(declarationPath, cacheDirectory);
+        } finally {
+            System.setOut(stdout);
+        }
+        assertFalse(output.toString(), output.toString().contains("Parsing file"));
+        assertEquals(describe(parsed), describe(cached));
+        assertEquals("customers", cached.getGenerationOrder()[0].getTableName());
+    }
+
+    @Test
+    public void reparsesCacheWithNegativeCount() throws Exception
+    {
+        SchemaCache.fromFile(declarationPath, cacheDirectory);
+        writeCacheWithTablesCount(-3);
+        assertParsed(SchemaCache.fromFile(declarationPath, cacheDirectory));
+    }
+
+    @Test
+    public void reparsesCacheWithHugeCount() throws Exception
+    {
+        SchemaCache.fromFile(declarationPath, cacheDirectory);
+        writeCacheWithTablesCount(Integer.MAX_VALUE);
+        assertParsed(SchemaCache.fromFile(declarationPath, cacheDirectory));
+    }
+
+    @Test
+    public void reparsesCacheWithGarbage() throws Exception
+    {
+        SchemaCache.fromFile(declarationPath, cacheDirectory);
+        byte[] garbage = new byte[256];
+        for (int i = 0; i < garbage.length; ++i) {
+            garbage[i] = (byte)(i * 37);
+        }
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(getCacheFile()))) {
+            out.writeLong(MAGIC);
+            out.write(garbage);
+        }
+        assertParsed(SchemaCache.fromFile(declarationPath, cacheDirectory));
+    }
+
+    @Test
+    public void rewritesDamagedCache() throws Exception
+    {
+        SchemaCache.fromFile(declarationPath, cacheDirectory);
+        byte[] cache = Files.readAllBytes(getCacheFile().toPath());
+        writeCacheWithTablesCount(-1);
+        SchemaCache.fromFile(declarationPath, cacheDirectory);
+        assertEquals(cache.length, Files.readAllBytes(getCacheFile().toPath()).length);
+    }
+}
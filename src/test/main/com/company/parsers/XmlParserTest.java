@@ -0,0 +1,124 @@
+package main.com.company.parsers;
+
+import main.com.company.models.SqlDatabase;
+import main.com.company.models.SqlNumericColumn;
+import org.junit.Test;
+
+import javax.management.modelmbean.XMLParseException;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+public class XmlParserTest {
+    private static SqlDatabase parse(String columns) throws XMLParseException
+    {
+        String xml = "<database name=\"db\"><table name=\"t\">" + columns + "</table></database>";
+        return XmlParser.fromStream(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static SqlNumericColumn parseColumn(String column) throws XMLParseException
+    {
+        return (SqlNumericColumn)parse(column).getTable("t").getTableColumns()[0];
+    }
+
+    @Test
+    public void exponentialColumnHasPositiveDefaultMean() throws Exception
+    {
+        SqlNumericColumn c = parseColumn("<column name=\"c\" type=\"double\" distribution=\"exponential\"/>");
+        assertEquals(10.0, c.getMean(), 0);
+    }
+
+    @Test
+    public void exponentialColumnKeepsDeclaredMean() throws Exception
+    {
+        SqlNumericColumn c = parseColumn("<column name=\"c\" type=\"double\" distribution=\"exponential\" mean=\"3\"/>");
+        assertEquals(3.0, c.getMean(), 0);
+    }
+
+    @Test
+    public void gaussianColumnKeepsZeroDefaultMean() throws Exception
+    {
+        assertEquals(0.0, parseColumn("<column name=\"c\" type=\"double\"/>").getMean(), 0);
+    }
+
+    @Test(expected = XMLParseException.class)
+    public void rejectsExponentialColumnWithZeroMean() throws Exception
+    {
+        parseColumn("<column name=\"c\" type=\"double\" distribution=\"exponential\" mean=\"0\"/>");
+    }
+
+    @Test
+    public void acceptsExponentialReferenceWithPositiveMean() throws Exception
+    {
+        parse("<reference table=\"t\" columnName=\"parent_id\" distribution=\"exponential\" mean=\"5\"/>");
+    }
+
+    @Test(expected = XMLParseException.class)
+    public void rejectsExponentialReferenceWithNegativeMean() throws Exception
+    {
+        parse("<reference table=\"t\" columnName=\"parent_id\" distribution=\"exponential\" mean=\"-5\"/>");
+    }
+
+    private static String stringColumn(String name, int maxLength)
+    {
+        return "<column name=\"" + name + "\" type=\"string\" minLength=\"1\" maxLength=\"" + maxLength + "\"/>";
+    }
+
+    @Test
+    public void acceptsLongestStringFittingRow() throws Exception
+    {
+        parse(stringColumn("c", 16382));
+    }
+
+    @Test(expected = XMLParseException.class)
+    public void rejectsStringColumnFillingRow() throws Exception
+    {
+        parse(stringColumn("c", 16383));
+    }
+
+    @Test(expected = XMLParseException.class)
+    public void rejectsReferenceOverflowingRow() throws Exception
+    {
+        parse(stringColumn("c", 16382) + "<reference table=\"t\" columnName=\"parent_id\"/>");
+    }
+
+    @Test(expected = XMLParseException.class)
+    public void rejectsColumnsOverflowingRow() throws Exception
+    {
+        parse(stringColumn("a", 6000) + stringColumn("b", 6000) + stringColumn("c", 6000));
+    }
+
+    @Test
+    public void weightedColumnSpreadsOverDeclaredRange() throws Exception
+    {
+        SqlNumericColumn c = parseColumn("<column name=\"c\" type=\"double\" distribution=\"weighted\" mean=\"50\""
+                + " dispersion=\"20\" weights=\"1, 0, 3\"/>");
+        assertEquals(3, c.getDistribution().getWeights().length);
+    }
+
+    @Test(expected = XMLParseException.class)
+    public void rejectsWeightedColumnWithDefaultMean() throws Exception
+    {
+        parseColumn("<column name=\"c\" type=\"integer\" distribution=\"weighted\" weights=\"1, 2\"/>");
+    }
+
+    @Test(expected = XMLParseException.class)
+    public void rejectsWeightedColumnWithZeroDispersion() throws Exception
+    {
+        parseColumn("<column name=\"c\" type=\"double\" distribution=\"weighted\" mean=\"50\" dispersion=\"0\""
+                + " weights=\"1, 2\"/>");
+    }
+
+    @Test(expected = XMLParseException.class)
+    public void rejectsEmptyWeights() throws Exception
+    {
+        parseColumn("<column name=\"c\" type=\"double\" distribution=\"weighted\" mean=\"50\" weights=\" \"/>");
+    }
+
+    @Test(expected = XMLParseException.class)
+    public void rejectsZeroWeights() throws Exception
+    {
+        parse("<reference table=\"t\" columnName=\"parent_id\" distribution=\"weighted\" weights=\"0, 0\"/>");
+    }
+}